@@ -72,19 +72,19 @@ export default function Post({ post, onUpdate }) {
         <button
           onClick={handleLike}
           disabled={isLiking || !user}
-          className={`flex items-center mr-4 ${post.likes?.includes(user?.id) ? 'text-red-500' : 'text-gray-500'} hover:text-red-600 disabled:opacity-50`}
+          className={`flex items-center mr-4 ${post.likedByMe ? 'text-red-500' : 'text-gray-500'} hover:text-red-600 disabled:opacity-50`}
         >
           <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5 mr-1" fill="none" viewBox="0 0 24 24" stroke="currentColor">
             <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M4.318 6.318a4.5 4.5 0 000 6.364L12 20.364l7.682-7.682a4.5 4.5 0 00-6.364-6.364L12 7.636l-1.318-1.318a4.5 4.5 0 00-6.364 0z" />
           </svg>
-          {post.likes?.length || 0}
+          {post.likeCount || 0}
         </button>
         
         <button className="flex items-center text-gray-500 hover:text-blue-600">
           <svg xmlns="http://www.w3.org/2000/svg" className="h-5 w-5 mr-1" fill="none" viewBox="0 0 24 24" stroke="currentColor">
             <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M8 12h.01M12 12h.01M16 12h.01M21 12c0 4.418-4.03 8-9 8a9.863 9.863 0 01-4.255-.949L3 20l1.395-3.72C3.512 15.042 3 13.574 3 12c0-4.418 4.03-8 9-8s9 3.582 9 8z" />
           </svg>
-          {post.comments?.length || 0}
+          {post.commentCount || 0}
         </button>
       </div>
       
@@ -119,10 +119,10 @@ export default function Post({ post, onUpdate }) {
                   </span>
                   <button
                     onClick={() => handleLikeComment(comment.id)}
-                    className={`ml-auto text-xs ${comment.likes?.includes(user?.id) ? 'text-red-500' : 'text-gray-500'} hover:text-red-600`}
+                    className={`ml-auto text-xs ${comment.likedByMe ? 'text-red-500' : 'text-gray-500'} hover:text-red-600`}
                     disabled={!user}
                   >
-                    Like ({comment.likes?.length || 0})
+                    Like ({comment.likeCount || 0})
                   </button>
                 </div>
                 <p className="text-sm">{comment.content}</p>
@@ -127,13 +127,13 @@ export default function PostCard({ post, onDelete, onLike, onComment }) {
             onClick={handleLike}
             disabled={isLiking || !user}
             className={`flex items-center space-x-1 ${
-              post.likes?.includes(user?.email) ? 'text-red-500' : 'text-gray-500'
+              post.likedByMe ? 'text-red-500' : 'text-gray-500'
             } ${!user ? 'opacity-50 cursor-not-allowed' : 'hover:text-red-600'}`}
           >
             <svg
               xmlns="http://www.w3.org/2000/svg"
               className="h-5 w-5"
-              fill={post.likes?.includes(user?.email) ? 'currentColor' : 'none'}
+              fill={post.likedByMe ? 'currentColor' : 'none'}
               viewBox="0 0 24 24"
               stroke="currentColor"
             >
@@ -144,7 +144,7 @@ export default function PostCard({ post, onDelete, onLike, onComment }) {
                 d="M4.318 6.318a4.5 4.5 0 000 6.364L12 20.364l7.682-7.682a4.5 4.5 0 00-6.364-6.364L12 7.636l-1.318-1.318a4.5 4.5 0 00-6.364 0z"
               />
             </svg>
-            <span>{post.likes?.length || 0}</span>
+            <span>{post.likeCount || 0}</span>
           </button>
           <button
             onClick={() => setShowComments(!showComments)}
@@ -164,7 +164,7 @@ export default function PostCard({ post, onDelete, onLike, onComment }) {
                 d="M8 12h.01M12 12h.01M16 12h.01M21 12c0 4.418-4.03 8-9 8a9.863 9.863 0 01-4.255-.949L3 20l1.395-3.72C3.512 15.042 3 13.574 3 12c0-4.418 4.03-8 9-8s9 3.582 9 8z"
               />
             </svg>
-            <span>{post.comments?.length || 0}</span>
+            <span>{post.commentCount || 0}</span>
           </button>
         </div>
       </div>
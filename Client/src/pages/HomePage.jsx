@@ -11,6 +11,8 @@ export default function PostsPage() {
   const [posts, setPosts] = useState([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
 
   const fetchPosts = async () => {
     try {
@@ -18,7 +20,8 @@ export default function PostsPage() {
       const { data } = await axios.get('http://localhost:8081/api/posts', {
         withCredentials: true
       });
-      setPosts(data);
+      setPosts(data.items);
+      setNextCursor(data.nextCursor);
     } catch (err) {
       console.error('Failed to fetch posts:', err);
       setError('Failed to load posts');
@@ -27,6 +30,27 @@ export default function PostsPage() {
     }
   };
 
+  const loadMorePosts = async () => {
+    try {
+      setIsLoadingMore(true);
+      const { data } = await axios.get('http://localhost:8081/api/posts', {
+        params: { cursor: nextCursor },
+        withCredentials: true
+      });
+      // A post created since the first page can show up again further down
+      setPosts(current => [
+        ...current,
+        ...data.items.filter(item => !current.some(post => post.id === item.id))
+      ]);
+      setNextCursor(data.nextCursor);
+    } catch (err) {
+      console.error('Failed to fetch more posts:', err);
+      toast.error('Failed to load more posts');
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     fetchPosts();
   }, []);
@@ -139,6 +163,18 @@ export default function PostsPage() {
               <p className="text-gray-500">No posts yet. Be the first to share!</p>
             </div>
           )}
+
+          {nextCursor && (
+            <div className="text-center">
+              <button
+                onClick={loadMorePosts}
+                disabled={isLoadingMore}
+                className="px-4 py-2 text-blue-600 hover:text-blue-800 disabled:text-gray-400"
+              >
+                {isLoadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
         </div>
       </div>
     </div>
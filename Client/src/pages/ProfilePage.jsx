@@ -23,7 +23,9 @@ export default function ProfilePage() {
   const [isSubmitting, setIsSubmitting] = useState(false);
   const [activeTab, setActiveTab] = useState('posts');
   const [userPosts, setUserPosts] = useState([]);
+  const [postsCursor, setPostsCursor] = useState(null);
   const [userCommunities, setUserCommunities] = useState([]);
+  const [communitiesCursor, setCommunitiesCursor] = useState(null);
   const [learningPlans, setLearningPlans] = useState([]);
   const [isLoadingContent, setIsLoadingContent] = useState(false);
   const [showPlanModal, setShowPlanModal] = useState(false);
@@ -105,14 +107,44 @@ export default function ProfilePage() {
     const { data } = await axios.get(`http://localhost:8081/api/posts/user/${userId}`, {
       withCredentials: true
     });
-    setUserPosts(data);
+    setUserPosts(data.items);
+    setPostsCursor(data.nextCursor);
+  };
+
+  const fetchMoreUserPosts = async () => {
+    try {
+      const { data } = await axios.get(`http://localhost:8081/api/posts/user/${profile.id}`, {
+        params: { cursor: postsCursor },
+        withCredentials: true
+      });
+      setUserPosts(current => [...current, ...data.items]);
+      setPostsCursor(data.nextCursor);
+    } catch (error) {
+      console.error('Failed to fetch more posts:', error);
+      toast.error('Failed to load more posts');
+    }
   };
 
   const fetchUserCommunities = async (userId) => {
     const { data } = await axios.get(`http://localhost:8081/api/communities/user/${userId}`, {
       withCredentials: true
     });
-    setUserCommunities(data);
+    setUserCommunities(data.items);
+    setCommunitiesCursor(data.nextCursor);
+  };
+
+  const fetchMoreUserCommunities = async () => {
+    try {
+      const { data } = await axios.get(`http://localhost:8081/api/communities/user/${profile.id}`, {
+        params: { cursor: communitiesCursor },
+        withCredentials: true
+      });
+      setUserCommunities(current => [...current, ...data.items]);
+      setCommunitiesCursor(data.nextCursor);
+    } catch (error) {
+      console.error('Failed to fetch more communities:', error);
+      toast.error('Failed to load more communities');
+    }
   };
 
   const fetchLearningPlans = async (userId) => {
@@ -161,7 +193,8 @@ export default function ProfilePage() {
         { withCredentials: true }
       );
 
-      setProfile(data);
+      // The server responds with only the fields that changed
+      setProfile(prev => ({ ...prev, ...data }));
       setIsEditing(false);
       toast.success('Profile updated successfully');
     } catch (error) {
@@ -393,6 +426,16 @@ export default function ProfilePage() {
                 No posts yet
               </div>
             )}
+            {postsCursor && (
+              <div className="text-center">
+                <button
+                  onClick={fetchMoreUserPosts}
+                  className="px-4 py-2 text-blue-600 hover:text-blue-800"
+                >
+                  Load more
+                </button>
+              </div>
+            )}
           </div>
         );
       case 'communities':
@@ -413,6 +456,16 @@ export default function ProfilePage() {
                 No communities yet
               </div>
             )}
+            {communitiesCursor && (
+              <div className="text-center col-span-full">
+                <button
+                  onClick={fetchMoreUserCommunities}
+                  className="px-4 py-2 text-blue-600 hover:text-blue-800"
+                >
+                  Load more
+                </button>
+              </div>
+            )}
           </div>
         );
       
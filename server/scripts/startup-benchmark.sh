@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Measures time-to-ready for the server in each startup mode.
+#
+# Build the artifacts first:
+#   ./mvnw -DskipTests package                 # plain jar
+#   ./mvnw -DskipTests -Paot package           # AOT-processed jar
+#   ./mvnw -DskipTests -Pcds package           # extracted jar + application.jsa
+#
+# Usage: scripts/startup-benchmark.sh [runs] [mode...]
+#   modes: plain fast aot cds (default: all of them)
+#
+# Each run starts the application, polls the readiness probe until it reports
+# UP and records the elapsed wall-clock time. The process is then stopped.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(plain fast aot cds)
+
+PORT=${PORT:-18080}
+READY_URL="http://localhost:${PORT}/actuator/health/readiness"
+JAR=$(ls target/*.jar 2>/dev/null | grep -v '\.original$' | head -n 1)
+
+command_for() {
+    local common=(-Dserver.port="${PORT}")
+    case "$1" in
+        plain) echo java "${common[@]}" -jar "$JAR" ;;
+        fast)  echo java "${common[@]}" -Dspring.profiles.active=fast-startup -jar "$JAR" ;;
+        aot)   echo java "${common[@]}" -Dspring.profiles.active=fast-startup -Dspring.aot.enabled=true -jar "$JAR" ;;
+        cds)   echo java "${common[@]}" -XX:SharedArchiveFile=application.jsa \
+                   -Dspring.profiles.active=fast-startup -jar "$(basename "$JAR")" ;;
+        *)     echo "Unknown mode: $1" >&2; return 1 ;;
+    esac
+}
+
+millis() { date +%s%3N; }
+
+run_once() {
+    local cmd
+    cmd=$(command_for "$1")
+    # The CDS archive only matches the classpath it was trained with.
+    local dir=.
+    [ "$1" = cds ] && dir=target/application
+    local log="$PWD/target/startup-$1.log"
+    local start
+    start=$(millis)
+    (cd "$dir" && exec $cmd) > "$log" 2>&1 &
+    local pid=$!
+
+    until curl -fs "$READY_URL" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Process exited before becoming ready, see $log" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    local elapsed=$(( $(millis) - start ))
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+if [ -z "$JAR" ]; then
+    echo "No jar found in target/, build the project first" >&2
+    exit 1
+fi
+
+for mode in "${MODES[@]}"; do
+    total=0
+    best=
+    for _ in $(seq 1 "$RUNS"); do
+        t=$(run_once "$mode")
+        total=$(( total + t ))
+        if [ -z "$best" ] || [ "$t" -lt "$best" ]; then best=$t; fi
+    done
+    printf '%-6s runs=%d avg=%dms best=%dms\n' "$mode" "$RUNS" $(( total / RUNS )) "$best"
+done
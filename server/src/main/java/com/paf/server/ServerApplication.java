@@ -6,7 +6,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 
+import com.paf.server.config.EntityCacheProperties;
 import com.paf.server.config.FileStorageProperties;
+import com.paf.server.config.UploadProperties;
 
 import io.jsonwebtoken.io.IOException;
 
@@ -35,7 +37,9 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 
 @SpringBootApplication
 @EnableConfigurationProperties({
-    FileStorageProperties.class
+    FileStorageProperties.class,
+    EntityCacheProperties.class,
+    UploadProperties.class
 })
 public class ServerApplication {
     public static void main(String[] args) {
@@ -0,0 +1,31 @@
+package com.paf.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AnalyticsConfig {
+
+    // Rollup updates are small $inc upserts, so one or two threads keep up. When the queue
+    // fills the publishing thread applies the update itself rather than dropping it.
+    @Bean(name = "analyticsExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor analyticsExecutor(
+            @Value("${analytics.threads:1}") int threads,
+            @Value("${analytics.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analytics-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,61 @@
+package com.paf.server.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USER_IDS_BY_EMAIL = "userIdsByEmail";
+    public static final String COMMUNITIES = "communities";
+    public static final String USER_SUMMARIES = "userSummaries";
+
+    /**
+     * Bounded, TTL-evicting Caffeine caches for the repositories opted in through
+     * {@code entity-cache.repositories}; every other cache name resolves to a no-op cache.
+     * Statistics are recorded so hit rates show up under the actuator cache metrics.
+     * User summaries are always cached, with their own size and TTL.
+     */
+    @Bean
+    public CacheManager cacheManager(EntityCacheProperties properties,
+                                     @Value("${users.summary-cache.max-size:2000}") long summaryMaxSize,
+                                     @Value("${users.summary-cache.ttl-seconds:300}") long summaryTtlSeconds) {
+        List<String> cacheNames = new ArrayList<>();
+        if (properties.getRepositories().contains(USERS)) {
+            cacheNames.add(USERS);
+            cacheNames.add(USER_IDS_BY_EMAIL);
+        }
+        if (properties.getRepositories().contains(COMMUNITIES)) {
+            cacheNames.add(COMMUNITIES);
+        }
+
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfterWrite(properties.getTtl())
+            .recordStats());
+        caffeineCacheManager.setAllowNullValues(false);
+        caffeineCacheManager.setCacheNames(cacheNames);
+        caffeineCacheManager.registerCustomCache(USER_SUMMARIES, Caffeine.newBuilder()
+            .maximumSize(summaryMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(summaryTtlSeconds))
+            .recordStats()
+            .build());
+
+        CompositeCacheManager cacheManager = new CompositeCacheManager(caffeineCacheManager);
+        cacheManager.setFallbackToNoOpCache(true);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,56 @@
+package com.paf.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "entity-cache")
+public class EntityCacheProperties {
+
+    /**
+     * Repositories whose lookups go through the local cache ("users", "communities").
+     * Anything not listed is read straight from Mongo.
+     */
+    private List<String> repositories = new ArrayList<>();
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+    /**
+     * Evict entries from Mongo change streams so writes on other nodes are seen.
+     * Requires a replica set.
+     */
+    private boolean changeStreams = false;
+
+    public List<String> getRepositories() {
+        return repositories;
+    }
+
+    public void setRepositories(List<String> repositories) {
+        this.repositories = repositories;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isChangeStreams() {
+        return changeStreams;
+    }
+
+    public void setChangeStreams(boolean changeStreams) {
+        this.changeStreams = changeStreams;
+    }
+}
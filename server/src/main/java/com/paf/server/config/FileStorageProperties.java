@@ -2,7 +2,6 @@ package com.paf.server.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
-import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,7 +11,7 @@ public class FileStorageProperties {
     
     private static final Logger logger = LoggerFactory.getLogger(FileStorageProperties.class);
     
-    @NotBlank
+    // Required by the firebase storage backend only
     private String bucketName;
     private String serviceAccount;
 
@@ -1,33 +1,101 @@
 package com.paf.server.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.storage.Storage;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.StorageClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
-import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Initializes Firebase and verifies bucket access. With {@code firebase.initialization=blocking}
+ * this happens during context startup as before; with {@code background} it runs on its own
+ * thread, the app starts without waiting, and the storage health indicator keeps readiness
+ * down until it has finished. Storage calls made before then wait up to
+ * {@code firebase.init-timeout}.
+ */
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "firebase", matchIfMissing = true)
 public class FirebaseConfig {
     
     private static final Logger logger = LoggerFactory.getLogger(FirebaseConfig.class);
     
     private final FileStorageProperties fileStorageProperties;
+    private final boolean background;
+    private final Duration initTimeout;
+    private final CompletableFuture<Storage> storage = new CompletableFuture<>();
     
-    public FirebaseConfig(FileStorageProperties fileStorageProperties) {
+    public FirebaseConfig(FileStorageProperties fileStorageProperties,
+                          @Value("${firebase.initialization:blocking}") String initialization,
+                          @Value("${firebase.init-timeout:30s}") Duration initTimeout) {
         this.fileStorageProperties = fileStorageProperties;
+        this.background = "background".equalsIgnoreCase(initialization);
+        this.initTimeout = initTimeout;
     }
     
     @PostConstruct
     public void initialize() {
+        if (background) {
+            Thread initializer = new Thread(this::initializeStorage, "firebase-init");
+            initializer.setDaemon(true);
+            initializer.start();
+            return;
+        }
+        initializeStorage();
+        if (storage.isCompletedExceptionally()) {
+            throw new RuntimeException("Failed to initialize Firebase", failure());
+        }
+    }
+    
+    /**
+     * The storage client, once initialization has finished.
+     */
+    public Storage getStorage() {
+        try {
+            return storage.get(initTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Firebase storage is still initializing", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Firebase storage failed to initialize", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for Firebase storage", ex);
+        }
+    }
+    
+    public boolean isReady() {
+        return storage.isDone() && !storage.isCompletedExceptionally();
+    }
+    
+    public Throwable failure() {
+        if (!storage.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            storage.join();
+            return null;
+        } catch (RuntimeException ex) {
+            return ex.getCause() != null ? ex.getCause() : ex;
+        }
+    }
+    
+    private void initializeStorage() {
+        long started = System.nanoTime();
         try {
             if (FirebaseApp.getApps().isEmpty()) {
                 // Load service account file
@@ -38,24 +106,25 @@ public class FirebaseConfig {
                 }
                 
                 // Initialize Firebase
-                InputStream serviceAccount = resource.getInputStream();
-                FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                    .setStorageBucket(fileStorageProperties.getBucketName())
-                    .build();
-                
-                FirebaseApp.initializeApp(options);
+                try (InputStream serviceAccount = resource.getInputStream()) {
+                    FirebaseOptions options = FirebaseOptions.builder()
+                        .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                        .setStorageBucket(fileStorageProperties.getBucketName())
+                        .build();
+                    FirebaseApp.initializeApp(options);
+                }
                 logger.info("Firebase initialized successfully");
-                
-                // Verify storage access
-                StorageClient.getInstance()
-                    .bucket(fileStorageProperties.getBucketName())
-                    .list();
-                logger.info("Firebase Storage connection verified");
             }
-        } catch (IOException e) {
+            
+            // Verify storage access
+            StorageClient storageClient = StorageClient.getInstance();
+            storageClient.bucket(fileStorageProperties.getBucketName()).list();
+            logger.info("Firebase Storage connection verified in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            storage.complete(storageClient.bucket(fileStorageProperties.getBucketName()).getStorage());
+        } catch (IOException | RuntimeException e) {
             logger.error("Firebase initialization failed", e);
-            throw new RuntimeException("Failed to initialize Firebase", e);
+            storage.completeExceptionally(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.paf.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    // BCrypt is CPU bound, so the pool is sized to the cores we are willing to give it
+    // and the queue is kept short. Anything beyond that is rejected straight away
+    // instead of piling up behind the request threads.
+    @Bean(name = "passwordHashingExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${registration.hashing.threads:2}") int threads,
+            @Value("${registration.hashing.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Registration finishes with a Mongo insert; it runs here rather than on the hashing
+    // threads so a slow write never holds BCrypt capacity.
+    @Bean(name = "registrationExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor registrationExecutor(
+            @Value("${registration.insert.threads:4}") int threads,
+            @Value("${registration.insert.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("registration-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,28 @@
+package com.paf.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class RenditionConfig {
+
+    // Decoding and scaling are CPU and memory heavy, so only a couple of images are worked
+    // on at once. A full queue rejects the job and the original keeps being served.
+    @Bean(name = "renditionExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor renditionExecutor(
+            @Value("${renditions.threads:2}") int threads,
+            @Value("${renditions.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("rendition-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
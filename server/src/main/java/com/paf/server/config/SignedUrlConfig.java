@@ -0,0 +1,29 @@
+package com.paf.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class SignedUrlConfig {
+
+    // Background re-signing of cached download URLs makes blocking storage calls, so it
+    // stays off the common fork-join pool. A rejected refresh is dropped by the cache and
+    // the current URL, still well inside its validity, keeps being served.
+    @Bean(name = "signedUrlExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor signedUrlExecutor(
+            @Value("${signed-urls.refresh-threads:2}") int threads,
+            @Value("${signed-urls.refresh-queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("url-signer-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
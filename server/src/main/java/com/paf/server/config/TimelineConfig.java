@@ -0,0 +1,30 @@
+package com.paf.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class TimelineConfig {
+
+    // Fan-out runs off the request thread; a post from an account with many followers is a
+    // few bulk writes. When the queue fills the publishing thread does the fan-out itself so
+    // no post is left out of its followers' timelines.
+    @Bean(name = "timelineExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor timelineExecutor(
+            @Value("${timeline.fanout.threads:2}") int threads,
+            @Value("${timeline.fanout.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("timeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.paf.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "upload")
+public class UploadProperties {
+
+    /**
+     * Bytes held in memory per upload while it is copied to storage. Google Cloud Storage
+     * needs resumable chunks in multiples of 256KB, so this is rounded up to one.
+     */
+    private DataSize bufferSize = DataSize.ofKilobytes(256);
+    /**
+     * Accepted content types; an entry ending in "/" matches the whole family.
+     */
+    private List<String> allowedContentTypes = new ArrayList<>(List.of("image/", "video/"));
+
+    public DataSize getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(DataSize bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public List<String> getAllowedContentTypes() {
+        return allowedContentTypes;
+    }
+
+    public void setAllowedContentTypes(List<String> allowedContentTypes) {
+        this.allowedContentTypes = allowedContentTypes;
+    }
+
+    public boolean isAllowed(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        return allowedContentTypes.stream().anyMatch(allowed -> allowed.endsWith("/")
+            ? contentType.startsWith(allowed)
+            : contentType.equalsIgnoreCase(allowed));
+    }
+}
@@ -1,16 +1,28 @@
 package com.paf.server.controller;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
 import com.paf.server.model.User;
 import com.paf.server.repository.UserRepository;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.PasswordHashingService;
+import com.paf.server.service.RegistrationRateLimiter;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.http.ResponseEntity;
 
@@ -19,11 +31,21 @@ import org.springframework.http.ResponseEntity;
 public class AuthController {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final RegistrationRateLimiter registrationRateLimiter;
+    private final EntityCacheService entityCacheService;
+    private final Executor registrationExecutor;
     
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(UserRepository userRepository,
+                          PasswordHashingService passwordHashingService,
+                          RegistrationRateLimiter registrationRateLimiter,
+                          EntityCacheService entityCacheService,
+                          @Qualifier("registrationExecutor") Executor registrationExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.registrationExecutor = registrationExecutor;
+        this.entityCacheService = entityCacheService;
+        this.passwordHashingService = passwordHashingService;
+        this.registrationRateLimiter = registrationRateLimiter;
     }
     
     @GetMapping("/user")
@@ -33,7 +55,7 @@ public class AuthController {
         }
         
         String email = (String) principal.getAttribute("email");
-        User user = userRepository.findByEmail(email)
+        User user = entityCacheService.findUserByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         Map<String, Object> userInfo = new HashMap<>();
@@ -46,20 +68,55 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody RegistrationRequest registrationRequest) {
-        if (userRepository.findByEmail(registrationRequest.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest().body("Email already in use");
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody RegistrationRequest registrationRequest,
+                                                             HttpServletRequest request) {
+        if (!registrationRateLimiter.tryAcquire(request.getRemoteAddr())) {
+            return CompletableFuture.completedFuture(tooManyRequests("Too many registration attempts, try again later"));
+        }
+        if (isBlank(registrationRequest.getEmail()) || isBlank(registrationRequest.getPassword())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email and password are required"));
         }
 
-        User user = new User();
-        user.setEmail(registrationRequest.getEmail());
-        user.setName(registrationRequest.getName());
-        user.setPassword(passwordEncoder.encode(registrationRequest.getPassword()));
-        user.setRoles(Collections.singletonList("ROLE_USER"));
-        
-        userRepository.save(user);
-        
-        return ResponseEntity.ok("User registered successfully");
+        // Hashing runs on its own bounded pool; the unique index on users.email
+        // settles duplicate sign-ups instead of a lookup before the insert
+        CompletableFuture<String> hashed;
+        try {
+            hashed = passwordHashingService.encode(registrationRequest.getPassword());
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(tooManyRequests("Registration is busy, try again later"));
+        }
+
+        // The insert runs on its own pool so the hashing threads go straight back to BCrypt
+        return hashed.<ResponseEntity<?>>thenApplyAsync(passwordHash -> {
+            User user = new User();
+            user.setEmail(registrationRequest.getEmail());
+            user.setName(registrationRequest.getName());
+            user.setPassword(passwordHash);
+            user.setRoles(Collections.singletonList("ROLE_USER"));
+
+            try {
+                userRepository.insert(user);
+            } catch (DuplicateKeyException ex) {
+                return ResponseEntity.badRequest().body("Email already in use");
+            }
+            return ResponseEntity.ok("User registered successfully");
+        }, registrationExecutor).exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RejectedExecutionException) {
+                return tooManyRequests("Registration is busy, try again later");
+            }
+            throw ex instanceof CompletionException completion ? completion : new CompletionException(cause);
+        });
+    }
+
+    private static ResponseEntity<?> tooManyRequests(String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, "60")
+            .body(message);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 }
 
@@ -11,23 +11,26 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Controller;
 
-import com.paf.server.model.Community;
 import com.paf.server.model.CommunityMessage;
 import com.paf.server.model.User;
 import com.paf.server.repository.CommunityRepository;
 import com.paf.server.repository.MessageRepository;
-import com.paf.server.repository.UserRepository;
+import com.paf.server.service.CommunityService;
+import com.paf.server.service.EntityCacheService;
 @Controller
 public class CommunityChatController {
 
     @Autowired
-    private UserRepository userRepository;
+    private CommunityService communityService;
+
+    @Autowired
+    private MessageRepository messageRepository;
 
     @Autowired
     private CommunityRepository communityRepository;
 
     @Autowired
-    private MessageRepository messageRepository;
+    private EntityCacheService entityCacheService;
 
     @MessageMapping("/community/{communityId}/sendMessage")
     @SendTo("/topic/community/{communityId}")
@@ -37,17 +40,19 @@ public class CommunityChatController {
             @AuthenticationPrincipal OAuth2User principal) {
         
         String email = (String) principal.getAttribute("email");
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
 
-        if (userOpt.isEmpty() || communityOpt.isEmpty()) {
+        if (userOpt.isEmpty()) {
             throw new SecurityException("User or community not found");
         }
 
         User user = userOpt.get();
-        Community community = communityOpt.get();
 
-        if (!community.getMembers().contains(user.getId())) {
+        // Checked against Mongo; the cached community may not have seen a recent join or leave
+        if (!communityRepository.existsByIdAndMembersContaining(communityId, user.getId())) {
+            if (entityCacheService.findCommunity(communityId).isEmpty()) {
+                throw new SecurityException("User or community not found");
+            }
             throw new SecurityException("Only members can send messages");
         }
 
@@ -60,9 +65,7 @@ public class CommunityChatController {
         CommunityMessage savedMessage = messageRepository.save(message);
         
         // Update community's last message info
-        community.setLastMessagePreview(message.getContent());
-        community.setLastMessageTime(message.getTimestamp());
-        communityRepository.save(community);
+        communityService.recordMessage(savedMessage);
 
         return savedMessage;
     }
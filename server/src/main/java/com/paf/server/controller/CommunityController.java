@@ -3,10 +3,20 @@ package com.paf.server.controller;
 
 import com.paf.server.model.Community;
 import com.paf.server.model.CommunityMessage;
+import com.paf.server.model.CommunityRecommendation;
+import com.paf.server.model.CommunitySummary;
+import com.paf.server.model.CursorPage;
 import com.paf.server.model.User;
+import com.paf.server.model.UserSummary;
 import com.paf.server.repository.CommunityRepository;
-import com.paf.server.repository.UserRepository;
 import com.paf.server.repository.MessageRepository;
+import com.paf.server.service.CommunityDirectoryService;
+import com.paf.server.service.CommunityService;
+import com.paf.server.service.CommunityService.MembershipResult;
+import com.paf.server.service.CommunityDirectoryService.DirectorySort;
+import com.paf.server.service.CommunityRecommendationService;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.UserSummaryService;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,7 +24,6 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,33 +34,36 @@ import java.util.Optional;
 public class CommunityController {
 
     private final CommunityRepository communityRepository;
-    private final UserRepository userRepository;
     private final MessageRepository messageRepository;
+    private final UserSummaryService userSummaryService;
+    private final CommunityDirectoryService communityDirectoryService;
+    private final EntityCacheService entityCacheService;
+    private final CommunityService communityService;
+    private final CommunityRecommendationService communityRecommendationService;
 
    public CommunityController(CommunityRepository communityRepository, 
-                         UserRepository userRepository,
-                         MessageRepository messageRepository) {
+                         MessageRepository messageRepository,
+                         UserSummaryService userSummaryService,
+                         CommunityDirectoryService communityDirectoryService,
+                         EntityCacheService entityCacheService,
+                         CommunityService communityService,
+                         CommunityRecommendationService communityRecommendationService) {
+    this.communityRecommendationService = communityRecommendationService;
+    this.entityCacheService = entityCacheService;
+    this.communityService = communityService;
     this.communityRepository = communityRepository;
-    this.userRepository = userRepository;
     this.messageRepository = messageRepository;
+    this.userSummaryService = userSummaryService;
+    this.communityDirectoryService = communityDirectoryService;
 }
 
-    // Add this to CommunityController.java
+    // Communities the user is a member or owner of, most recently active first
 @GetMapping("/user/{userId}")
-public ResponseEntity<List<Community>> getUserCommunities(@PathVariable String userId) {
-    // Get communities where user is a member
-    List<Community> memberCommunities = communityRepository.findByMembersContaining(userId);
-    
-    // Get communities owned by user
-    List<Community> ownedCommunities = communityRepository.findByOwnerId(userId);
-    
-    // Combine and remove duplicates
-    List<Community> allCommunities = new ArrayList<>(memberCommunities);
-    ownedCommunities.stream()
-        .filter(community -> !allCommunities.contains(community))
-        .forEach(allCommunities::add);
-    
-    return ResponseEntity.ok(allCommunities);
+public ResponseEntity<CursorPage<CommunitySummary>> getUserCommunities(
+        @PathVariable String userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "50") int limit) {
+    return ResponseEntity.ok(communityDirectoryService.getUserCommunities(userId, cursor, limit));
 }
 
     // Create a new community
@@ -60,7 +72,7 @@ public ResponseEntity<List<Community>> getUserCommunities(@PathVariable String u
             @RequestBody Community community,
             @AuthenticationPrincipal OAuth2User principal) {
         String email = (String) principal.getAttribute("email");
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
         
         if (userOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -73,27 +85,48 @@ public ResponseEntity<List<Community>> getUserCommunities(@PathVariable String u
         
         // Add owner as first member
         community.getMembers().add(user.getId());
+        community.setMemberCount(community.getMembers().size());
         
         Community savedCommunity = communityRepository.save(community);
         
         // Update user's owned communities
-        user.getOwnedCommunities().add(savedCommunity.getId());
-        userRepository.save(user);
+        communityService.addOwnedCommunity(user.getId(), savedCommunity.getId());
+        communityService.communityCreated(savedCommunity);
         
         return ResponseEntity.ok(savedCommunity);
     }
 
-    // Get all public communities
+    // Public community directory, one page at a time
     @GetMapping
-    public ResponseEntity<List<Community>> getAllCommunities() {
-        List<Community> communities = communityRepository.findByIsPrivate(false);
-        return ResponseEntity.ok(communities);
+    public ResponseEntity<CursorPage<CommunitySummary>> getAllCommunities(
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(defaultValue = "activity") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        DirectorySort directorySort;
+        try {
+            directorySort = DirectorySort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(communityDirectoryService.getDirectory(tag, directorySort, cursor, limit));
+    }
+
+    // Communities ranked for the current user by tag overlap and recent activity
+    @GetMapping("/recommendations")
+    public ResponseEntity<List<CommunityRecommendation>> getRecommendations(
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String email = (String) principal.getAttribute("email");
+        return entityCacheService.findUserByEmail(email)
+            .map(user -> ResponseEntity.ok(communityRecommendationService.recommend(user, limit)))
+            .orElse(ResponseEntity.notFound().build());
     }
 
     // Get community by ID
     @GetMapping("/{id}")
     public ResponseEntity<Community> getCommunity(@PathVariable String id) {
-        Optional<Community> communityOpt = communityRepository.findById(id);
+        Optional<Community> communityOpt = entityCacheService.findCommunity(id);
         return communityOpt.map(ResponseEntity::ok)
                          .orElse(ResponseEntity.notFound().build());
     }
@@ -123,17 +156,18 @@ public ResponseEntity<?> sendMessage(
         @RequestBody CommunityMessage message,
         @AuthenticationPrincipal OAuth2User principal) {
     String email = (String) principal.getAttribute("email");
-    Optional<User> userOpt = userRepository.findByEmail(email);
-    Optional<Community> communityOpt = communityRepository.findById(id);
-    
-    if (userOpt.isEmpty() || communityOpt.isEmpty()) {
+    Optional<User> userOpt = entityCacheService.findUserByEmail(email);
+    if (userOpt.isEmpty()) {
         return ResponseEntity.notFound().build();
     }
 
-    Community community = communityOpt.get();
     User user = userOpt.get();
     
-    if (!community.getMembers().contains(user.getId())) {
+    // Membership is read from Mongo; the cached community can lag a join or leave on another node
+    if (!communityRepository.existsByIdAndMembersContaining(id, user.getId())) {
+        if (entityCacheService.findCommunity(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
         // Return a proper error response with status code
         Map<String, String> errorResponse = new HashMap<>();
         errorResponse.put("error", "You must be a member to send messages");
@@ -147,49 +181,35 @@ public ResponseEntity<?> sendMessage(
     CommunityMessage savedMessage = messageRepository.save(message);
     
     // Update community's last message info
-    community.setLastMessagePreview(message.getContent());
-    community.setLastMessageTime(message.getTimestamp());
-    communityRepository.save(community);
+    communityService.recordMessage(savedMessage);
     
     return ResponseEntity.ok(savedMessage);
 }
 
     // Helper method for join/leave operations
     private ResponseEntity<?> handleCommunityMembership(String communityId, String email, boolean isJoining) {
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        Optional<Community> communityOpt = communityRepository.findById(communityId);
-        
-        if (userOpt.isEmpty() || communityOpt.isEmpty()) {
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
+        if (userOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        User user = userOpt.get();
-        Community community = communityOpt.get();
+        String userId = userOpt.get().getId();
+        MembershipResult result = isJoining
+            ? communityService.join(communityId, userId)
+            : communityService.leave(communityId, userId);
         
-        if (isJoining) {
-            if (community.getMembers().contains(user.getId())) {
-                return ResponseEntity.badRequest().body("Already a member");
-            }
-            community.getMembers().add(user.getId());
-            user.getCommunities().add(communityId);
-        } else {
-            if (!community.getMembers().contains(user.getId())) {
-                return ResponseEntity.badRequest().body("Not a member");
-            }
-            community.getMembers().remove(user.getId());
-            user.getCommunities().remove(communityId);
-        }
-        
-        communityRepository.save(community);
-        userRepository.save(user);
-        
-        return ResponseEntity.ok().build();
+        return switch (result) {
+            case UPDATED -> ResponseEntity.ok().build();
+            case ALREADY_MEMBER -> ResponseEntity.badRequest().body("Already a member");
+            case NOT_MEMBER -> ResponseEntity.badRequest().body("Not a member");
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
     }
 
     @GetMapping("/users/{userId}")
-public ResponseEntity<User> getUserById(@PathVariable String userId) {
-    Optional<User> userOpt = userRepository.findById(userId);
-    return userOpt.map(ResponseEntity::ok)
+public ResponseEntity<UserSummary> getUserById(@PathVariable String userId) {
+    return userSummaryService.getSummary(userId)
+                 .map(ResponseEntity::ok)
                  .orElse(ResponseEntity.notFound().build());
 }
 
@@ -199,7 +219,7 @@ public ResponseEntity<List<CommunityMessage>> getCommunityMessages(
         @AuthenticationPrincipal OAuth2User principal) {
     
     String email = principal.getAttribute("email");
-    Optional<User> userOpt = userRepository.findByEmail(email);
+    Optional<User> userOpt = entityCacheService.findUserByEmail(email);
     
     if (userOpt.isEmpty() || !communityRepository.existsByIdAndMembersContaining(communityId, userOpt.get().getId())) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -215,7 +235,7 @@ public ResponseEntity<Long> getUnreadMessageCount(
         @AuthenticationPrincipal OAuth2User principal) {
     
     String email = principal.getAttribute("email");
-    Optional<User> userOpt = userRepository.findByEmail(email);
+    Optional<User> userOpt = entityCacheService.findUserByEmail(email);
     
     if (userOpt.isEmpty() || !communityRepository.existsByIdAndMembersContaining(communityId, userOpt.get().getId())) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -232,7 +252,7 @@ public ResponseEntity<Void> markMessagesAsRead(
         @AuthenticationPrincipal OAuth2User principal) {
     
     String email = principal.getAttribute("email");
-    Optional<User> userOpt = userRepository.findByEmail(email);
+    Optional<User> userOpt = entityCacheService.findUserByEmail(email);
     
     if (userOpt.isEmpty() || !communityRepository.existsByIdAndMembersContaining(communityId, userOpt.get().getId())) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -246,4 +266,9 @@ public ResponseEntity<Void> markMessagesAsRead(
     
     return ResponseEntity.ok().build();
 }
+
+@ExceptionHandler(IllegalArgumentException.class)
+public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+    return ResponseEntity.badRequest().body(ex.getMessage());
+}
 }
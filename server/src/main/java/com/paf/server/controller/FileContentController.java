@@ -0,0 +1,190 @@
+package com.paf.server.controller;
+
+import com.paf.server.storage.StorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves object bytes for storage backends that keep files locally. Supports strong ETags
+ * with If-None-Match, and single byte ranges with If-Range. Bodies are handed to Tomcat's
+ * sendfile when the connector offers it and otherwise copied with FileChannel.transferTo.
+ * Backends without local files are redirected to their download URL.
+ */
+@RestController
+@RequestMapping("/api/files")
+public class FileContentController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FileContentController.class);
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    // Content-addressed originals are named <sha256>.<ext>, so the name is the content hash
+    private static final Pattern CONTENT_HASH = Pattern.compile("^([0-9a-f]{64})(\\.[a-z0-9]{1,8})?$");
+    private static final Duration REDIRECT_URL_VALIDITY = Duration.ofHours(1);
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    
+    private final StorageBackend storageBackend;
+    
+    public FileContentController(StorageBackend storageBackend) {
+        this.storageBackend = storageBackend;
+    }
+    
+    @GetMapping("/content")
+    public void serveContent(@RequestParam String name,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Optional<Path> file;
+        try {
+            file = storageBackend.localPath(name);
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+        if (file.isEmpty()) {
+            if (storageBackend.exists(name)) {
+                response.sendRedirect(storageBackend.url(name, REDIRECT_URL_VALIDITY));
+            } else {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+            return;
+        }
+        
+        Path path = file.get();
+        long length = Files.size(path);
+        Matcher hash = CONTENT_HASH.matcher(name);
+        boolean immutable = hash.matches();
+        // Files are replaced by atomic rename, so size plus mtime also identifies the bytes
+        String etag = "\"" + (immutable
+            ? hash.group(1)
+            : Long.toHexString(length) + "-" + Long.toHexString(Files.getLastModifiedTime(path).toMillis())) + "\"";
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? "private, max-age=31536000, immutable" : "private, no-cache");
+        
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A stale If-Range validator means the client wants the whole current file
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+            // Multiple ranges are legal to ignore; the full body is sent instead
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) {
+                    start = Math.max(0, length - rangeValue(matcher.group(2)));
+                } else {
+                    start = rangeValue(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(end, rangeValue(matcher.group(2)));
+                    }
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        
+        long count = end - start + 1;
+        response.setContentType(contentType(path));
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException ex) {
+            // Mostly clients going away mid-download
+            logger.debug("Transfer of {} aborted: {}", name, ex.getMessage());
+        }
+    }
+    
+    // Positions past Long.MAX_VALUE are past the end of any file, so they saturate there:
+    // a start becomes unsatisfiable, an end or suffix length covers the whole file
+    private static long rangeValue(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.replaceFirst("^W/", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Names can lie about the format (renditions written before their names followed the
+    // output format, extensionless uploads), so sniff first
+    private static String contentType(Path path) throws IOException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+            String sniffed = URLConnection.guessContentTypeFromStream(input);
+            if (sniffed != null) {
+                return sniffed;
+            }
+        }
+        String probed = Files.probeContentType(path);
+        return probed != null ? probed : "application/octet-stream";
+    }
+}
@@ -1,18 +1,28 @@
 package com.paf.server.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.cloud.StorageClient;
-import com.paf.server.config.FileStorageProperties;
+import com.paf.server.config.UploadProperties;
+import com.paf.server.model.FileRendition;
+import com.paf.server.model.StoredFile;
+import com.paf.server.model.User;
+import com.paf.server.service.ContentStoreService;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.RenditionService;
+import com.paf.server.service.SignedUrlService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,25 +32,27 @@ public class FileUploadController {
     
     private static final Logger logger = LoggerFactory.getLogger(FileUploadController.class);
     
-    private final StorageClient storageClient;
-    private final String bucketName;
+    private final ContentStoreService contentStoreService;
+    private final SignedUrlService signedUrlService;
+    private final RenditionService renditionService;
+    private final EntityCacheService entityCacheService;
+    private final UploadProperties uploadProperties;
     
-    public FileUploadController(FileStorageProperties fileStorageProperties) {
-        try {
-            this.bucketName = fileStorageProperties.getBucketName();
-            if (bucketName == null || bucketName.isEmpty()) {
-                throw new IllegalArgumentException("Bucket name is not specified in FileStorageProperties");
-            }
-            this.storageClient = StorageClient.getInstance(FirebaseApp.getInstance());
-            logger.info("FileUploadController initialized with bucket: {}", bucketName);
-        } catch (IllegalStateException ex) {
-            logger.error("FirebaseApp not initialized: {}", ex.getMessage(), ex);
-            throw new RuntimeException("FirebaseApp not initialized", ex);
-        }
+    public FileUploadController(ContentStoreService contentStoreService,
+                                SignedUrlService signedUrlService,
+                                RenditionService renditionService,
+                                EntityCacheService entityCacheService,
+                                UploadProperties uploadProperties) {
+        this.contentStoreService = contentStoreService;
+        this.signedUrlService = signedUrlService;
+        this.renditionService = renditionService;
+        this.entityCacheService = entityCacheService;
+        this.uploadProperties = uploadProperties;
     }
     
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file,
+                                        @AuthenticationPrincipal OAuth2User principal) {
         try {
             // Validate file
             if (file.isEmpty()) {
@@ -48,29 +60,38 @@ public class FileUploadController {
                 return ResponseEntity.badRequest().body("Please select a file to upload");
             }
             
-            // Validate file type (only images)
+            // Validate file type (images and videos)
             String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                logger.warn("Upload attempt with non-image file: {}", contentType);
-                return ResponseEntity.badRequest().body("Only image files are allowed");
+            if (!uploadProperties.isAllowed(contentType)) {
+                logger.warn("Upload attempt with unsupported file type: {}", contentType);
+                return ResponseEntity.badRequest().body("Only image and video files are allowed");
+            }
+            
+            Optional<User> user = entityCacheService.findUserByEmail(principal.getAttribute("email"));
+            if (user.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
             }
             
-            // Generate unique filename
-            String filename = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
+            // Hashed from the container's local copy; only unseen content is streamed to storage
+            StoredFile stored = contentStoreService.store(file, file.getOriginalFilename(), contentType, user.get().getId());
+            String filename = stored.getObjectName();
             
-            // Upload file to Firebase Storage
-            logger.info("Uploading file: {} to bucket: {}", filename, bucketName);
-            storageClient.bucket(bucketName).create(filename, file.getBytes(), contentType);
+            // Sign once and cache, so the first serveFile for it is free
+            String fileUrl = signedUrlService.signNew(filename);
             
-            // Generate signed URL (valid for 7 days)
-            String fileUrl = storageClient.bucket(bucketName)
-                .get(filename)
-                .signUrl(7, TimeUnit.DAYS)
-                .toString();
+            // Thumbnail and medium sizes are produced in the background
+            if (renditionService.isResizable(contentType)) {
+                renditionService.submit(filename);
+            }
             
             logger.info("File uploaded successfully, signed URL: {}", fileUrl);
-            return ResponseEntity.ok(Map.of("fileUrl", fileUrl));
+            return ResponseEntity.ok(Map.of("fileUrl", fileUrl, "filename", filename));
             
+        } catch (ContentStoreService.ContentBusyException ex) {
+            // The collector is removing this content; a retry shortly after succeeds
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ex.getMessage());
         } catch (IOException ex) {
             logger.error("Failed to upload file: {}", ex.getMessage(), ex);
             return ResponseEntity.internalServerError().body("Failed to upload file: " + ex.getMessage());
@@ -80,25 +101,68 @@ public class FileUploadController {
     @GetMapping("/files/{filename:.+}")
     public ResponseEntity<?> serveFile(
             @PathVariable String filename,
+            @RequestParam(required = false) String size,
             HttpServletRequest request) {
         try {
-            // Get file from Firebase Storage
-            com.google.cloud.storage.Blob blob = storageClient.bucket(bucketName).get(filename);
+            RenditionService.Rendition requested = RenditionService.Rendition.parse(size);
             
-            if (blob == null || !blob.exists()) {
-                logger.warn("File not found: {}", filename);
-                return ResponseEntity.notFound().build();
+            // Smallest available rendition at or above the requested size; each lookup is a
+            // signed-URL cache hit, or a cached miss for renditions that were never made
+            for (String objectName : RenditionService.candidates(filename, requested)) {
+                Optional<String> fileUrl = signedUrlService.getUrl(objectName);
+                if (fileUrl.isPresent()) {
+                    logger.debug("Retrieved signed URL for file: {}", objectName);
+                    return ResponseEntity.ok(Map.of("fileUrl", fileUrl.get()));
+                }
             }
             
-            // Generate signed URL (valid for 7 days)
-            String fileUrl = blob.signUrl(7, TimeUnit.DAYS).toString();
-            
-            logger.info("Retrieved signed URL for file: {}", filename);
-            return ResponseEntity.ok(Map.of("fileUrl", fileUrl));
+            logger.warn("File not found: {}", filename);
+            return ResponseEntity.notFound().build();
             
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (Exception ex) {
             logger.error("Failed to retrieve file: {}", ex.getMessage(), ex);
             return ResponseEntity.internalServerError().body("Failed to retrieve file: " + ex.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    @GetMapping("/files/{filename:.+}/renditions")
+    public ResponseEntity<FileRendition> getRenditions(@PathVariable String filename) {
+        return renditionService.getStatus(filename)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Re-queues a failed, skipped or stalled job; a pending, running or finished one is left alone
+    @PostMapping("/files/{filename:.+}/renditions")
+    public ResponseEntity<?> requestRenditions(@PathVariable String filename) {
+        if (signedUrlService.getUrl(filename).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Same rule as on upload: GIFs keep their animation and videos are never decoded
+        String contentType = contentStoreService.findContentType(filename)
+            .or(() -> MediaTypeFactory.getMediaType(filename).map(MediaType::toString))
+            .orElse(null);
+        if (!renditionService.isResizable(contentType)) {
+            return ResponseEntity.badRequest().body("Renditions are only produced for JPEG, PNG and BMP images");
+        }
+        return ResponseEntity.accepted().body(Map.of("status", renditionService.submit(filename)));
+    }
+    
+    // Drops the caller's reference; the object goes once nothing references it
+    @DeleteMapping("/files/{filename:.+}")
+    public ResponseEntity<?> releaseFile(@PathVariable String filename,
+                                         @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = entityCacheService.findUserByEmail(principal.getAttribute("email"));
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
+        }
+        
+        return switch (contentStoreService.release(filename, user.get().getId())) {
+            case RELEASED -> ResponseEntity.noContent().build();
+            case FORBIDDEN -> ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not your file");
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
+}
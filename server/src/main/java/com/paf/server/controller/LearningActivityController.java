@@ -0,0 +1,47 @@
+package com.paf.server.controller;
+
+import com.paf.server.model.LearningStreak;
+import com.paf.server.service.LearningActivityService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/learning-activity/users/{userId}")
+public class LearningActivityController {
+
+    private final LearningActivityService learningActivityService;
+
+    public LearningActivityController(LearningActivityService learningActivityService) {
+        this.learningActivityService = learningActivityService;
+    }
+
+    // Defaults to the last year, the usual contribution-graph window
+    @GetMapping("/heatmap")
+    public ResponseEntity<Map<LocalDate, Integer>> getHeatmap(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        return ResponseEntity.ok(learningActivityService.getHeatmap(userId, start, end));
+    }
+
+    @GetMapping("/streak")
+    public ResponseEntity<LearningStreak> getStreak(@PathVariable String userId) {
+        return ResponseEntity.ok(learningActivityService.getStreak(userId, LocalDate.now()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
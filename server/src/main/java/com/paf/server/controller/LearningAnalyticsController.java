@@ -0,0 +1,47 @@
+package com.paf.server.controller;
+
+import com.paf.server.model.LearningCategoryStats;
+import com.paf.server.service.LearningAnalyticsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/learning")
+public class LearningAnalyticsController {
+
+    private final LearningAnalyticsService learningAnalyticsService;
+
+    public LearningAnalyticsController(LearningAnalyticsService learningAnalyticsService) {
+        this.learningAnalyticsService = learningAnalyticsService;
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<LearningCategoryStats>> getPlatformStats() {
+        return ResponseEntity.ok(learningAnalyticsService.getCategoryStats(LearningAnalyticsService.GLOBAL_SCOPE));
+    }
+
+    @GetMapping("/categories/{skillCategory}")
+    public ResponseEntity<LearningCategoryStats> getPlatformStats(@PathVariable String skillCategory) {
+        return learningAnalyticsService.getCategoryStats(LearningAnalyticsService.GLOBAL_SCOPE, skillCategory)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/users/{userId}/categories")
+    public ResponseEntity<List<LearningCategoryStats>> getUserStats(@PathVariable String userId) {
+        return ResponseEntity.ok(learningAnalyticsService.getCategoryStats(LearningAnalyticsService.userScope(userId)));
+    }
+
+    @GetMapping("/users/{userId}/categories/{skillCategory}")
+    public ResponseEntity<LearningCategoryStats> getUserStats(@PathVariable String userId,
+                                                              @PathVariable String skillCategory) {
+        return learningAnalyticsService.getCategoryStats(LearningAnalyticsService.userScope(userId), skillCategory)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,14 +1,24 @@
 // LearningPlanController.java
 package com.paf.server.controller;
 
+import com.paf.server.model.CursorPage;
 import com.paf.server.model.LearningPlan;
+import com.paf.server.model.LearningPlanSummary;
+import com.paf.server.model.TopicBulkRequest;
 import com.paf.server.service.LearningPlanService;
+import com.paf.server.service.TopicImportParser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,6 +28,9 @@ public class LearningPlanController {
     @Autowired
     private LearningPlanService learningPlanService;
 
+    @Autowired
+    private TopicImportParser topicImportParser;
+
     @GetMapping
     public ResponseEntity<List<LearningPlan>> getUserPlans(@AuthenticationPrincipal OAuth2User principal) {
         String userId = (String) principal.getAttribute("sub"); // Changed from email to sub (user ID)
@@ -29,6 +42,22 @@ public class LearningPlanController {
         return ResponseEntity.ok(learningPlanService.getUserPlans(userId));
     }
 
+    // Titles and progress only; the profile page opens a plan with GET /{planId}
+    @GetMapping("/user/{userId}/summaries")
+    public ResponseEntity<CursorPage<LearningPlanSummary>> getPlanSummaries(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(learningPlanService.getPlanSummaries(userId, cursor, limit));
+    }
+
+    @GetMapping("/{planId}")
+    public ResponseEntity<LearningPlan> getPlan(@PathVariable String planId) {
+        return learningPlanService.findPlan(planId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     public ResponseEntity<LearningPlan> createPlan(
             @RequestBody LearningPlan plan,
@@ -59,17 +88,87 @@ public class LearningPlanController {
     public ResponseEntity<LearningPlan> addTopic(
             @PathVariable String planId,
             @RequestBody LearningPlan.PlanTopic topic,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal OAuth2User principal) {
         String userId = (String) principal.getAttribute("email");
-        return ResponseEntity.ok(learningPlanService.addTopic(planId, topic, userId));
+        return ResponseEntity.ok(learningPlanService.addTopic(planId, topic, userId, parseVersion(ifMatch)));
     }
 
     @PutMapping("/{planId}/topics/{topicId}/complete")
     public ResponseEntity<LearningPlan> markTopicComplete(
             @PathVariable String planId,
             @PathVariable String topicId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal OAuth2User principal) {
         String userId = (String) principal.getAttribute("email");
-        return ResponseEntity.ok(learningPlanService.markTopicComplete(planId, topicId, userId));
+        return ResponseEntity.ok(learningPlanService.markTopicComplete(planId, topicId, userId, parseVersion(ifMatch)));
+    }
+
+    @PostMapping("/{planId}/topics/bulk")
+    public ResponseEntity<LearningPlan> applyBulk(
+            @PathVariable String planId,
+            @RequestBody TopicBulkRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String userId = (String) principal.getAttribute("email");
+        return ResponseEntity.ok(learningPlanService.applyBulk(planId, request, userId, parseVersion(ifMatch)));
+    }
+
+    @PostMapping("/{planId}/topics/import")
+    public ResponseEntity<LearningPlan> importTopics(
+            @PathVariable String planId,
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String userId = (String) principal.getAttribute("email");
+        List<LearningPlan.PlanTopic> topics = readTopics(file);
+        return ResponseEntity.ok(learningPlanService.importTopics(planId, topics, userId, parseVersion(ifMatch)));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<LearningPlan> importPlan(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("title") String title,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "skillCategory", required = false) String skillCategory,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String userId = (String) principal.getAttribute("email");
+        LearningPlan plan = new LearningPlan();
+        plan.setTitle(title);
+        plan.setDescription(description);
+        plan.setSkillCategory(skillCategory);
+        plan.setTopics(readTopics(file));
+        return ResponseEntity.ok(learningPlanService.createPlan(plan, userId));
+    }
+
+    // Another tab or client changed the plan since the caller read it
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    private List<LearningPlan.PlanTopic> readTopics(MultipartFile file) {
+        TopicImportParser.Format format = TopicImportParser.Format.detect(file.getOriginalFilename(), file.getContentType());
+        try (InputStream input = file.getInputStream()) {
+            return topicImportParser.parse(input, format, learningPlanService.getMaxTopics());
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Could not read topics: " + ex.getMessage());
+        }
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(ifMatch.replace("W/", "").replace("\"", "").trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match must carry the plan version");
+        }
     }
 }
\ No newline at end of file
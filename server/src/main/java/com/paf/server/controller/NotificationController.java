@@ -2,7 +2,7 @@
 package com.paf.server.controller;
 
 import com.paf.server.model.Notification;
-import com.paf.server.repository.UserRepository;
+import com.paf.server.service.EntityCacheService;
 import com.paf.server.service.NotificationService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +21,10 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     @Autowired
-private UserRepository userRepository; // Your User repository
+private EntityCacheService entityCacheService;
 
     private String getUserIDFromEmail(String email) {
-    return userRepository.findByEmail(email)
+    return entityCacheService.findUserByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"))
             .getId();
 }
@@ -0,0 +1,190 @@
+package com.paf.server.controller;
+
+import com.paf.server.model.Comment;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.Post;
+import com.paf.server.model.PostView;
+import com.paf.server.model.User;
+import com.paf.server.service.CommentService;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.PostService;
+import com.paf.server.service.TimelineService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/posts")
+public class PostController {
+
+    private final PostService postService;
+    private final CommentService commentService;
+    private final TimelineService timelineService;
+    private final EntityCacheService entityCacheService;
+
+    public PostController(PostService postService,
+                          CommentService commentService,
+                          TimelineService timelineService,
+                          EntityCacheService entityCacheService) {
+        this.postService = postService;
+        this.commentService = commentService;
+        this.timelineService = timelineService;
+        this.entityCacheService = entityCacheService;
+    }
+
+    // Home timeline of the current user, one stored bucket per page
+    @GetMapping
+    public ResponseEntity<?> getHomeTimeline(
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(timelineService.getHomeTimeline(user.get().getId(), cursor));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createPost(
+            @RequestBody Post post,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(postService.toView(postService.createPost(user.get(), post), user.get().getId()));
+    }
+
+    @GetMapping("/{postId}")
+    public ResponseEntity<PostView> getPost(
+            @PathVariable String postId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String viewerId = viewerId(principal);
+        return postService.findPost(postId)
+            .map(post -> ResponseEntity.ok(postService.toView(post, viewerId)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // One author's posts, newest first
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<CursorPage<PostView>> getUserPosts(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal OAuth2User principal) {
+        return ResponseEntity.ok(postService.getUserPosts(userId, cursor, limit, viewerId(principal)));
+    }
+
+    @DeleteMapping("/{postId}")
+    public ResponseEntity<?> deletePost(
+            @PathVariable String postId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        if (postService.deletePost(postId, user.get().getId())) {
+            return ResponseEntity.noContent().build();
+        }
+        return postService.findPost(postId).isPresent()
+            ? ResponseEntity.status(HttpStatus.FORBIDDEN).build()
+            : ResponseEntity.notFound().build();
+    }
+
+    // Toggles the current user's like
+    @PostMapping("/{postId}/like")
+    public ResponseEntity<?> likePost(
+            @PathVariable String postId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        return toResponse(postService.toggleLike(postId, user.get().getId()), user.get().getId());
+    }
+
+    // The rest of a thread after the preview embedded in the post, oldest first
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<CursorPage<Comment>> getComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal OAuth2User principal) {
+        return ResponseEntity.ok(commentService.getComments(postId, cursor, limit, viewerId(principal)));
+    }
+
+    @PostMapping("/{postId}/comments")
+    public ResponseEntity<?> addComment(
+            @PathVariable String postId,
+            @RequestBody Comment comment,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        return toResponse(commentService.addComment(postId, user.get().getId(), comment.getContent()), user.get().getId());
+    }
+
+    // Allowed for the comment's author and the post's author
+    @DeleteMapping("/{postId}/comments/{commentId}")
+    public ResponseEntity<?> deleteComment(
+            @PathVariable String postId,
+            @PathVariable String commentId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        Optional<Post> updated = commentService.deleteComment(postId, commentId, user.get().getId());
+        if (updated.isPresent()) {
+            return ResponseEntity.ok(postService.toView(updated.get(), user.get().getId()));
+        }
+        return postService.findPost(postId).isPresent()
+            ? ResponseEntity.status(HttpStatus.FORBIDDEN).build()
+            : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/{postId}/comments/{commentId}/like")
+    public ResponseEntity<?> likeComment(
+            @PathVariable String postId,
+            @PathVariable String commentId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return unauthorized();
+        }
+        return toResponse(commentService.toggleCommentLike(postId, commentId, user.get().getId()), user.get().getId());
+    }
+
+    // /api/posts/** is open in SecurityConfig, so writes check the principal here
+    private Optional<User> currentUser(OAuth2User principal) {
+        if (principal == null) {
+            return Optional.empty();
+        }
+        return entityCacheService.findUserByEmail(principal.getAttribute("email"));
+    }
+
+    // Anonymous readers see no likedByMe flags
+    private String viewerId(OAuth2User principal) {
+        return currentUser(principal).map(User::getId).orElse(null);
+    }
+
+    private ResponseEntity<?> toResponse(Optional<Post> post, String viewerId) {
+        return post.<ResponseEntity<?>>map(p -> ResponseEntity.ok(postService.toView(p, viewerId)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -1,14 +1,20 @@
 package com.paf.server.controller;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
 import com.paf.server.model.User;
-import com.paf.server.repository.UserRepository;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.ProfileService;
 
-import java.util.List;
+import jakarta.validation.Valid;
+
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -16,79 +22,74 @@ import java.util.Optional;
 @RequestMapping("/api/profile")
 public class ProfileController {
     
-    private final UserRepository userRepository;
+    private final EntityCacheService entityCacheService;
+    private final ProfileService profileService;
     
-    public ProfileController(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public ProfileController(EntityCacheService entityCacheService, ProfileService profileService) {
+        this.entityCacheService = entityCacheService;
+        this.profileService = profileService;
     }
     
     @GetMapping
     public ResponseEntity<User> getProfile(@AuthenticationPrincipal OAuth2User principal) {
         String email = (String) principal.getAttribute("email");
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
         return userOpt.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/{userId}")
     public ResponseEntity<User> getUserProfile(@PathVariable String userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<User> userOpt = entityCacheService.findUser(userId);
         return userOpt.map(ResponseEntity::ok)
                       .orElse(ResponseEntity.notFound().build());
     }
     
     @PutMapping
-    public ResponseEntity<User> updateProfile(
-            @RequestBody Map<String, Object> updates,
+    public ResponseEntity<?> updateProfile(
+            @Valid @RequestBody ProfileUpdateRequest updates,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal OAuth2User principal) {
         String email = (String) principal.getAttribute("email");
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        User user = userOpt.get();
-        
-        // Update fields if they exist in the request
-        if (updates.containsKey("name")) {
-            user.setName((String) updates.get("name"));
-        }
-        if (updates.containsKey("bio")) {
-            user.setBio((String) updates.get("bio"));
-        }
-        if (updates.containsKey("location")) {
-            user.setLocation((String) updates.get("location"));
-        }
-        if (updates.containsKey("skills")) {
-            user.setSkills((List<String>) updates.get("skills"));
-        }
-        if (updates.containsKey("interests")) {
-            user.setInterests((List<String>) updates.get("interests"));
+        Map<String, Object> changes = updates.toChanges();
+        if (changes.isEmpty()) {
+            return ResponseEntity.badRequest().body("No profile fields to update");
         }
         
-        User updatedUser = userRepository.save(user);
-        return ResponseEntity.ok(updatedUser);
+        return applyPatch(email, changes, ifMatch);
     }
     
     @PutMapping("/picture")
-    public ResponseEntity<User> updateProfilePicture(
+    public ResponseEntity<?> updateProfilePicture(
             @RequestBody Map<String, String> request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal OAuth2User principal) {
         String email = (String) principal.getAttribute("email");
         String pictureUrl = request.get("pictureUrl");
-        
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
+        if (pictureUrl == null || pictureUrl.isBlank()) {
+            return ResponseEntity.badRequest().body("pictureUrl is required");
         }
         
-        User user = userOpt.get();
-        user.setProfilePicture(pictureUrl);
-        User updatedUser = userRepository.save(user);
-        
-        return ResponseEntity.ok(updatedUser);
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("profilePicture", pictureUrl);
+        return applyPatch(email, changes, ifMatch);
     }
 
-    
-}
\ No newline at end of file
+    // Responds with only the fields that changed, plus the new version
+    private ResponseEntity<?> applyPatch(String email, Map<String, Object> changes, String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ifMatch == null ? null : Long.valueOf(ifMatch.replace("W/", "").replace("\"", "").trim());
+        } catch (NumberFormatException ex) {
+            return ResponseEntity.badRequest().body("If-Match must carry the profile version");
+        }
+        
+        try {
+            return profileService.applyPatch(email, changes, expectedVersion)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+}
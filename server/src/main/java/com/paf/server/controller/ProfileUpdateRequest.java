@@ -0,0 +1,36 @@
+package com.paf.server.controller;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partial profile update. Fields left null are not touched.
+ */
+@Data
+class ProfileUpdateRequest {
+    @Size(min = 1, max = 100)
+    private String name;
+    @Size(max = 1000)
+    private String bio;
+    @Size(max = 200)
+    private String location;
+    @Size(max = 50)
+    private List<@NotBlank @Size(max = 50) String> skills;
+    @Size(max = 50)
+    private List<@NotBlank @Size(max = 50) String> interests;
+
+    Map<String, Object> toChanges() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (name != null) changes.put("name", name);
+        if (bio != null) changes.put("bio", bio);
+        if (location != null) changes.put("location", location);
+        if (skills != null) changes.put("skills", skills);
+        if (interests != null) changes.put("interests", interests);
+        return changes;
+    }
+}
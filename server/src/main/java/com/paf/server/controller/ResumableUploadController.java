@@ -0,0 +1,170 @@
+package com.paf.server.controller;
+
+import com.paf.server.model.StoredFile;
+import com.paf.server.model.UploadSession;
+import com.paf.server.model.User;
+import com.paf.server.service.ContentStoreService;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.RenditionService;
+import com.paf.server.service.ResumableUploadService;
+import com.paf.server.service.SignedUrlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resumable uploads for large files and poor connections:
+ * <ol>
+ *   <li>{@code POST /api/uploads} with filename, content type and size starts a session</li>
+ *   <li>{@code PUT /api/uploads/{id}?offset=n} appends the raw request body at offset n</li>
+ *   <li>{@code GET /api/uploads/{id}} reports the offset to resume from after a failure</li>
+ *   <li>{@code POST /api/uploads/{id}/complete} stores the file, answering like {@code /api/upload}</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class ResumableUploadController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadController.class);
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    
+    private final ResumableUploadService resumableUploadService;
+    private final SignedUrlService signedUrlService;
+    private final RenditionService renditionService;
+    private final EntityCacheService entityCacheService;
+    
+    public ResumableUploadController(ResumableUploadService resumableUploadService,
+                                     SignedUrlService signedUrlService,
+                                     RenditionService renditionService,
+                                     EntityCacheService entityCacheService) {
+        this.resumableUploadService = resumableUploadService;
+        this.signedUrlService = signedUrlService;
+        this.renditionService = renditionService;
+        this.entityCacheService = entityCacheService;
+    }
+    
+    @PostMapping
+    public ResponseEntity<?> initiate(@Valid @RequestBody UploadSessionRequest request,
+                                      @AuthenticationPrincipal OAuth2User principal) throws IOException {
+        Optional<User> user = currentUser(principal);
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
+        }
+        
+        UploadSession session = resumableUploadService.initiate(user.get().getId(),
+            request.getFilename(), request.getContentType(), request.getSize());
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+            "uploadId", session.getId(),
+            "offset", 0L,
+            "maxChunkSize", resumableUploadService.getMaxChunkSize(),
+            "expiresAt", session.getExpiresAt()));
+    }
+    
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getStatus(@PathVariable String uploadId,
+                                       @AuthenticationPrincipal OAuth2User principal) {
+        Optional<UploadSession> session = findSession(uploadId, principal);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok()
+            .header(UPLOAD_OFFSET, String.valueOf(session.get().getReceivedBytes()))
+            .body(Map.of(
+                "offset", session.get().getReceivedBytes(),
+                "size", session.get().getTotalSize(),
+                "status", session.get().getStatus(),
+                "expiresAt", session.get().getExpiresAt()));
+    }
+    
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<?> appendChunk(@PathVariable String uploadId,
+                                         @RequestParam long offset,
+                                         HttpServletRequest request,
+                                         @AuthenticationPrincipal OAuth2User principal) throws IOException {
+        Optional<UploadSession> session = findSession(uploadId, principal);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try (InputStream body = request.getInputStream()) {
+            long newOffset = resumableUploadService.appendChunk(session.get(), offset, body);
+            return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .body(Map.of("offset", newOffset));
+        } catch (IllegalStateException ex) {
+            // Wrong offset or a concurrent chunk: tell the client where to resume
+            long current = resumableUploadService.find(uploadId, session.get().getOwnerId())
+                .map(UploadSession::getReceivedBytes)
+                .orElse(session.get().getReceivedBytes());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET, String.valueOf(current))
+                .body(Map.of("message", ex.getMessage(), "offset", current));
+        }
+    }
+    
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> complete(@PathVariable String uploadId,
+                                      @AuthenticationPrincipal OAuth2User principal) throws IOException {
+        Optional<UploadSession> session = findSession(uploadId, principal);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        StoredFile stored;
+        try {
+            stored = resumableUploadService.complete(session.get());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        } catch (ContentStoreService.ContentBusyException ex) {
+            // The session is open again, so the client can simply repeat the finalize
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(ex.getMessage());
+        }
+        String filename = stored.getObjectName();
+        String fileUrl = signedUrlService.signNew(filename);
+        if (renditionService.isResizable(stored.getContentType())) {
+            renditionService.submit(filename);
+        }
+        
+        logger.info("Resumable upload {} stored as {}", uploadId, filename);
+        return ResponseEntity.ok(Map.of("fileUrl", fileUrl, "filename", filename));
+    }
+    
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@PathVariable String uploadId,
+                                   @AuthenticationPrincipal OAuth2User principal) throws IOException {
+        Optional<UploadSession> session = findSession(uploadId, principal);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        resumableUploadService.abort(session.get());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+    
+    private Optional<UploadSession> findSession(String uploadId, OAuth2User principal) {
+        return currentUser(principal).flatMap(user -> resumableUploadService.find(uploadId, user.getId()));
+    }
+    
+    private Optional<User> currentUser(OAuth2User principal) {
+        return entityCacheService.findUserByEmail(principal.getAttribute("email"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.paf.server.controller;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Starts a resumable upload of {@code size} bytes.
+ */
+@Data
+class UploadSessionRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String filename;
+    @NotBlank
+    private String contentType;
+    @Positive
+    private long size;
+}
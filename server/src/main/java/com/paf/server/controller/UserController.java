@@ -0,0 +1,115 @@
+package com.paf.server.controller;
+
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.User;
+import com.paf.server.model.UserSummary;
+import com.paf.server.service.EntityCacheService;
+import com.paf.server.service.FollowService;
+import com.paf.server.service.UserSummaryService;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    private static final int MAX_SUMMARY_BATCH = 200;
+
+    private final EntityCacheService entityCacheService;
+    private final FollowService followService;
+    private final UserSummaryService userSummaryService;
+
+    public UserController(EntityCacheService entityCacheService,
+                          FollowService followService,
+                          UserSummaryService userSummaryService) {
+        this.entityCacheService = entityCacheService;
+        this.followService = followService;
+        this.userSummaryService = userSummaryService;
+    }
+
+    // Resolves many user ids (e.g. every sender on a chat page) in one round-trip
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getSummaries(@RequestParam List<String> ids) {
+        if (ids.size() > MAX_SUMMARY_BATCH) {
+            return ResponseEntity.badRequest().body("At most " + MAX_SUMMARY_BATCH + " ids per request");
+        }
+        List<UserSummary> summaries = userSummaryService.getSummaries(ids);
+        return ResponseEntity.ok(summaries);
+    }
+
+    @PostMapping("/{userId}/follow")
+    public ResponseEntity<?> follow(
+            @PathVariable String userId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String email = (String) principal.getAttribute("email");
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
+
+        if (userOpt.isEmpty() || entityCacheService.findUser(userId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (userOpt.get().getId().equals(userId)) {
+            return ResponseEntity.badRequest().body("You cannot follow yourself");
+        }
+        if (!followService.follow(userOpt.get(), userId)) {
+            return ResponseEntity.badRequest().body("Already following");
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/{userId}/follow")
+    public ResponseEntity<?> unfollow(
+            @PathVariable String userId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String email = (String) principal.getAttribute("email");
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
+
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!followService.unfollow(userOpt.get().getId(), userId)) {
+            return ResponseEntity.badRequest().body("Not following");
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/{userId}/follow")
+    public ResponseEntity<Map<String, Boolean>> followStatus(
+            @PathVariable String userId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        String email = (String) principal.getAttribute("email");
+        Optional<User> userOpt = entityCacheService.findUserByEmail(email);
+
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("following", followService.isFollowing(userOpt.get().getId(), userId)));
+    }
+
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<CursorPage<String>> getFollowers(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(followService.getFollowers(userId, cursor, limit));
+    }
+
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<CursorPage<String>> getFollowing(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(followService.getFollowing(userId, cursor, limit));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
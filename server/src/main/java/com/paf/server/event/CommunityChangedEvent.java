@@ -0,0 +1,27 @@
+package com.paf.server.event;
+
+import com.paf.server.model.Community;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a community write. Carries just enough of the change for listeners to
+ * update derived state without reading the community back.
+ */
+public record CommunityChangedEvent(String communityId,
+                                    Community created,
+                                    int memberDelta,
+                                    LocalDateTime lastMessageTime) {
+
+    public static CommunityChangedEvent created(Community community) {
+        return new CommunityChangedEvent(community.getId(), community, 0, null);
+    }
+
+    public static CommunityChangedEvent membersChanged(String communityId, int memberDelta) {
+        return new CommunityChangedEvent(communityId, null, memberDelta, null);
+    }
+
+    public static CommunityChangedEvent messagePosted(String communityId, LocalDateTime timestamp) {
+        return new CommunityChangedEvent(communityId, null, 0, timestamp);
+    }
+}
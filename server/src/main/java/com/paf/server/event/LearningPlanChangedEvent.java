@@ -0,0 +1,37 @@
+package com.paf.server.event;
+
+import com.paf.server.model.LearningPlan;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a learning plan write with the plan's rollup-relevant state before and
+ * after it. {@code before} is null for a new plan and {@code after} is null for a deleted one.
+ */
+public record LearningPlanChangedEvent(String planId,
+                                       String userId,
+                                       PlanStats before,
+                                       PlanStats after) {
+
+    public record PlanStats(String skillCategory,
+                            int progress,
+                            LocalDateTime createdAt,
+                            LocalDateTime completedAt) {
+
+        public static PlanStats of(LearningPlan plan) {
+            return new PlanStats(plan.getSkillCategory(), plan.getProgress(), plan.getCreatedAt(), plan.getCompletedAt());
+        }
+    }
+
+    public static LearningPlanChangedEvent created(LearningPlan plan) {
+        return new LearningPlanChangedEvent(plan.getId(), plan.getUserId(), null, PlanStats.of(plan));
+    }
+
+    public static LearningPlanChangedEvent updated(PlanStats before, LearningPlan after) {
+        return new LearningPlanChangedEvent(after.getId(), after.getUserId(), before, PlanStats.of(after));
+    }
+
+    public static LearningPlanChangedEvent deleted(LearningPlan plan) {
+        return new LearningPlanChangedEvent(plan.getId(), plan.getUserId(), PlanStats.of(plan), null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.paf.server.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a post is stored, so it can be fanned out to followers' timelines.
+ */
+public record PostCreatedEvent(String postId, String authorId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,104 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves comments embedded in posts into the comments collection and trims each post's
+ * array down to the preview. Embedded comments without a postId predate the collection;
+ * they are upserted by id so an interrupted run can be repeated. Runs after
+ * {@link LikeEdgeMigration}, which still reads likes from the embedded comments.
+ */
+@Slf4j
+@Component
+@Order(15)
+public class CommentCollectionMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 200;
+
+    private static final Bson HAS_LEGACY_COMMENTS = Filters.elemMatch("comments", Filters.exists("postId", false));
+
+    private final MongoTemplate mongoTemplate;
+    private final int previewSize;
+
+    public CommentCollectionMigration(MongoTemplate mongoTemplate,
+                                      @Value("${posts.comment-preview-size:3}") int previewSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.previewSize = previewSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoCollection<Document> posts = mongoTemplate.getCollection("posts");
+        MongoCollection<Document> comments = mongoTemplate.getCollection("comments");
+
+        List<WriteModel<Document>> commentWrites = new ArrayList<>();
+        List<WriteModel<Document>> previewWrites = new ArrayList<>();
+        long migratedPosts = 0;
+
+        for (Document post : posts.find(HAS_LEGACY_COMMENTS)
+                .projection(Projections.include("comments"))
+                .batchSize(BATCH_SIZE)) {
+            String postId = post.get("_id").toString();
+            List<Document> thread = new ArrayList<>();
+            for (Document comment : post.getList("comments", Document.class, List.of())) {
+                Document copy = new Document(comment).append("postId", postId);
+                thread.add(copy);
+
+                Document fields = new Document(copy);
+                fields.remove("_id");
+                commentWrites.add(new UpdateOneModel<>(Filters.eq("_id", comment.get("_id")),
+                    Updates.setOnInsert(fields), new UpdateOptions().upsert(true)));
+            }
+
+            thread.sort(Comparator.comparing(comment -> comment.get("createdAt", Date.class),
+                Comparator.nullsLast(Comparator.naturalOrder())));
+            List<Document> preview = thread.subList(0, Math.min(previewSize, thread.size()));
+            previewWrites.add(new UpdateOneModel<>(Filters.eq("_id", post.get("_id")),
+                Updates.combine(Updates.set("comments", preview), Updates.max("commentCount", thread.size()))));
+            migratedPosts++;
+
+            if (previewWrites.size() >= BATCH_SIZE) {
+                flush(posts, comments, commentWrites, previewWrites);
+            }
+        }
+        flush(posts, comments, commentWrites, previewWrites);
+
+        if (migratedPosts > 0) {
+            log.info("Moved comments of {} posts to the comments collection", migratedPosts);
+        }
+    }
+
+    // Comments are written before any post is trimmed, so nothing is lost if the run stops here
+    private static void flush(MongoCollection<Document> posts, MongoCollection<Document> comments,
+                              List<WriteModel<Document>> commentWrites, List<WriteModel<Document>> previewWrites) {
+        if (!commentWrites.isEmpty()) {
+            comments.bulkWrite(commentWrites, new BulkWriteOptions().ordered(false));
+            commentWrites.clear();
+        }
+        if (!previewWrites.isEmpty()) {
+            posts.bulkWrite(previewWrites, new BulkWriteOptions().ordered(false));
+            previewWrites.clear();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Backfills communities.memberCount from the size of the members array, server side.
+ */
+@Slf4j
+@Component
+@Order(10)
+public class CommunityMemberCountMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CommunityMemberCountMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        UpdateResult result = mongoTemplate.getCollection("communities").updateMany(
+            Filters.exists("memberCount", false),
+            List.of(new Document("$set", new Document("memberCount",
+                new Document("$size", new Document("$ifNull", List.of("$members", List.of())))))));
+        if (result.getModifiedCount() > 0) {
+            log.info("Backfilled memberCount on {} communities", result.getModifiedCount());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Seeds {@code version: 0} on documents written before their entity carried {@code @Version}.
+ * Without it Spring Data treats a loaded document with a null version as new and inserts it
+ * again on save.
+ */
+@Slf4j
+@Component
+@Order(0)
+public class DocumentVersionMigration implements ApplicationRunner {
+
+    private static final List<String> VERSIONED_COLLECTIONS = List.of("users", "learning_plans");
+
+    private final MongoTemplate mongoTemplate;
+
+    public DocumentVersionMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String collection : VERSIONED_COLLECTIONS) {
+            UpdateResult result = mongoTemplate.getCollection(collection)
+                .updateMany(Filters.exists("version", false), Updates.set("version", 0L));
+            if (result.getModifiedCount() > 0) {
+                log.info("Initialised version on {} documents in {}", result.getModifiedCount(), collection);
+            }
+        }
+    }
+}
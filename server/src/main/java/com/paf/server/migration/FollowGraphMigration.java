@@ -0,0 +1,143 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves the legacy embedded users.following / users.followers arrays into the follows
+ * collection. Users are streamed in batches, edges are upserted so the run can be
+ * repeated after an interruption, and the arrays are unset once their edges are written.
+ * Follower/following counts are recomputed from the edges at the end.
+ *
+ * <p>A marker document in the migrations collection stops the scan of users on later
+ * starts. It is written by the first run that finds no embedded arrays left, so users that
+ * older nodes still wrote during a rolling deploy are moved by a later start.
+ */
+@Slf4j
+@Component
+@Order(10)
+public class FollowGraphMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String MARKER_ID = "follow-graph";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public FollowGraphMigration(MongoTemplate mongoTemplate,
+                                @Value("${migration.follow-graph.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection("migrations");
+        if (!enabled || migrations.find(Filters.eq("_id", MARKER_ID)).first() != null) {
+            return;
+        }
+
+        MongoCollection<Document> users = mongoTemplate.getCollection("users");
+        MongoCollection<Document> follows = mongoTemplate.getCollection("follows");
+
+        List<WriteModel<Document>> edgeWrites = new ArrayList<>();
+        List<Object> migratedUserIds = new ArrayList<>();
+        long migratedUsers = 0;
+
+        for (Document user : users.find(Filters.or(Filters.exists("following"), Filters.exists("followers")))
+                .projection(Projections.include("following", "followers"))
+                .batchSize(BATCH_SIZE)) {
+            String userId = user.get("_id").toString();
+            for (String followeeId : user.getList("following", String.class, List.of())) {
+                edgeWrites.add(edgeUpsert(userId, followeeId));
+            }
+            for (String followerId : user.getList("followers", String.class, List.of())) {
+                edgeWrites.add(edgeUpsert(followerId, userId));
+            }
+            migratedUserIds.add(user.get("_id"));
+            migratedUsers++;
+
+            if (migratedUserIds.size() >= BATCH_SIZE) {
+                flush(users, follows, edgeWrites, migratedUserIds);
+            }
+        }
+        flush(users, follows, edgeWrites, migratedUserIds);
+
+        if (migratedUsers > 0) {
+            recomputeCounts(users, follows);
+            log.info("Migrated follow graph for {} users", migratedUsers);
+        } else {
+            migrations.replaceOne(Filters.eq("_id", MARKER_ID), new Document("_id", MARKER_ID).append("completedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+        }
+    }
+
+    private static WriteModel<Document> edgeUpsert(String followerId, String followeeId) {
+        return new UpdateOneModel<>(
+            Filters.and(Filters.eq("followerId", followerId), Filters.eq("followeeId", followeeId)),
+            Updates.setOnInsert("createdAt", new Date()),
+            new UpdateOptions().upsert(true));
+    }
+
+    private static void flush(MongoCollection<Document> users, MongoCollection<Document> follows,
+                              List<WriteModel<Document>> edgeWrites, List<Object> migratedUserIds) {
+        if (!edgeWrites.isEmpty()) {
+            follows.bulkWrite(edgeWrites, new BulkWriteOptions().ordered(false));
+            edgeWrites.clear();
+        }
+        if (!migratedUserIds.isEmpty()) {
+            users.updateMany(Filters.in("_id", migratedUserIds),
+                Updates.combine(Updates.unset("following"), Updates.unset("followers")));
+            migratedUserIds.clear();
+        }
+    }
+
+    private static void recomputeCounts(MongoCollection<Document> users, MongoCollection<Document> follows) {
+        writeCounts(users, follows, "$followeeId", "followerCount");
+        writeCounts(users, follows, "$followerId", "followingCount");
+    }
+
+    private static void writeCounts(MongoCollection<Document> users, MongoCollection<Document> follows,
+                                    String groupKey, String countField) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Document group : follows.aggregate(List.of(
+                        new Document("$group", new Document("_id", groupKey).append("count", new Document("$sum", 1)))))
+                .allowDiskUse(true)
+                .batchSize(BATCH_SIZE)) {
+            writes.add(new UpdateOneModel<>(Filters.eq("_id", toUserKey(group.getString("_id"))),
+                Updates.set(countField, group.get("count", Number.class).longValue())));
+            if (writes.size() >= BATCH_SIZE) {
+                users.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+                writes.clear();
+            }
+        }
+        if (!writes.isEmpty()) {
+            users.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        }
+    }
+
+    // User ids are stored as ObjectIds but referenced as hex strings everywhere else
+    private static Object toUserKey(String userId) {
+        return ObjectId.isValid(userId) ? new ObjectId(userId) : userId;
+    }
+}
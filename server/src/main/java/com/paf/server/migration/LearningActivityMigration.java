@@ -0,0 +1,81 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Seeds learning_activity from the completedAt of topics completed before the activity log
+ * existed. The buckets are built and written by a single server-side aggregation ending in
+ * $merge, and a marker document in the migrations collection records that the backfill ran.
+ * The collection itself is no guard: during a rolling deploy, nodes already running the new
+ * code fill it with fresh completions before the backfill has run. Buckets are recomputed
+ * from completedAt and replaced whole, so those completions are counted once either way.
+ */
+@Slf4j
+@Component
+@Order(10)
+public class LearningActivityMigration implements ApplicationRunner {
+
+    private static final String MARKER_ID = "learning-activity-backfill";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public LearningActivityMigration(MongoTemplate mongoTemplate,
+                                     @Value("${migration.learning-activity.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection("migrations");
+        if (!enabled || migrations.find(Filters.eq("_id", MARKER_ID)).first() != null) {
+            return;
+        }
+
+        // LocalDateTime is stored as an instant in the server zone, so days are cut in that zone
+        Document day = new Document("$dateToString", new Document("format", "%Y-%m-%d")
+            .append("date", "$topics.completedAt")
+            .append("timezone", ZoneId.systemDefault().getId()));
+
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("topics.completedAt", new Document("$ne", null))),
+            new Document("$unwind", "$topics"),
+            new Document("$match", new Document("topics.completed", true)
+                .append("topics.completedAt", new Document("$ne", null))),
+            new Document("$group", new Document("_id", new Document("userId", "$userId").append("day", day))
+                .append("count", new Document("$sum", 1))),
+            new Document("$group", new Document("_id", new Document("userId", "$_id.userId")
+                    .append("month", new Document("$substrBytes", List.of("$_id.day", 0, 7))))
+                .append("days", new Document("$push", new Document("k",
+                        new Document("$toString", new Document("$toInt", new Document("$substrBytes", List.of("$_id.day", 8, 2)))))
+                    .append("v", "$count")))
+                .append("total", new Document("$sum", "$count"))),
+            new Document("$project", new Document("_id", new Document("$concat", List.of("$_id.userId", "|", "$_id.month")))
+                .append("userId", "$_id.userId")
+                .append("month", "$_id.month")
+                .append("days", new Document("$arrayToObject", "$days"))
+                .append("total", 1)),
+            new Document("$merge", new Document("into", "learning_activity").append("whenMatched", "replace")));
+
+        mongoTemplate.getCollection("learning_plans").aggregate(pipeline).allowDiskUse(true).toCollection();
+        // Written only after the $merge, so an interrupted run is repeated on the next start
+        migrations.replaceOne(Filters.eq("_id", MARKER_ID), new Document("_id", MARKER_ID).append("completedAt", new Date()),
+            new ReplaceOptions().upsert(true));
+        log.info("Backfilled learning activity from completed topics");
+    }
+}
@@ -0,0 +1,53 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Backfills learning_plans.totalTopics and completedTopics from the topics array, server side,
+ * and stamps completedAt on finished plans that predate it, using their last update time.
+ */
+@Slf4j
+@Component
+@Order(10)
+public class LearningPlanCounterMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    public LearningPlanCounterMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Document topics = new Document("$ifNull", List.of("$topics", List.of()));
+        Document completed = new Document("$filter", new Document("input", topics)
+            .append("as", "topic")
+            .append("cond", new Document("$eq", List.of("$$topic.completed", true))));
+
+        UpdateResult result = mongoTemplate.getCollection("learning_plans").updateMany(
+            Filters.or(Filters.exists("totalTopics", false), Filters.exists("completedTopics", false)),
+            List.of(new Document("$set", new Document("totalTopics", new Document("$size", topics))
+                .append("completedTopics", new Document("$size", completed)))));
+        if (result.getModifiedCount() > 0) {
+            log.info("Backfilled topic counters on {} learning plans", result.getModifiedCount());
+        }
+
+        UpdateResult completedPlans = mongoTemplate.getCollection("learning_plans").updateMany(
+            Filters.and(Filters.eq("progress", 100), Filters.exists("completedAt", false)),
+            List.of(new Document("$set", new Document("completedAt",
+                new Document("$ifNull", List.of("$updatedAt", "$$NOW"))))));
+        if (completedPlans.getModifiedCount() > 0) {
+            log.info("Backfilled completedAt on {} learning plans", completedPlans.getModifiedCount());
+        }
+    }
+}
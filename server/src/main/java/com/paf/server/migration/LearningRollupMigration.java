@@ -0,0 +1,32 @@
+package com.paf.server.migration;
+
+import com.paf.server.service.LearningAnalyticsService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the learning rollups once when they do not exist yet, after the plan counters and
+ * completedAt have been backfilled, so dashboards are populated before the first nightly run.
+ */
+@Component
+@Order(20)
+public class LearningRollupMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final LearningAnalyticsService learningAnalyticsService;
+
+    public LearningRollupMigration(MongoTemplate mongoTemplate, LearningAnalyticsService learningAnalyticsService) {
+        this.mongoTemplate = mongoTemplate;
+        this.learningAnalyticsService = learningAnalyticsService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mongoTemplate.getCollection("learning_rollups").estimatedDocumentCount() == 0) {
+            learningAnalyticsService.rebuild();
+        }
+    }
+}
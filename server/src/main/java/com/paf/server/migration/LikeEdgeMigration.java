@@ -0,0 +1,113 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.paf.server.model.LikeEdge.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Moves the embedded posts.likes and posts.comments[].likes arrays into the likes
+ * collection. Posts are streamed in batches and edges are upserted, so an interrupted run
+ * can be repeated; once a batch's edges are written each comment gets its likeCount and the
+ * arrays are unset. Post likeCount was already kept alongside the array.
+ */
+@Slf4j
+@Component
+@Order(10)
+public class LikeEdgeMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Bson HAS_LIKE_ARRAYS = Filters.or(
+        Filters.exists("likes"), Filters.exists("comments.likes"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public LikeEdgeMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoCollection<Document> posts = mongoTemplate.getCollection("posts");
+        MongoCollection<Document> likes = mongoTemplate.getCollection("likes");
+
+        List<WriteModel<Document>> edgeWrites = new ArrayList<>();
+        List<Object> migratedPostIds = new ArrayList<>();
+        long migratedPosts = 0;
+
+        for (Document post : posts.find(HAS_LIKE_ARRAYS)
+                .projection(Projections.include("likes", "comments._id", "comments.likes"))
+                .batchSize(BATCH_SIZE)) {
+            String postId = post.get("_id").toString();
+            for (String userId : post.getList("likes", String.class, List.of())) {
+                edgeWrites.add(edgeUpsert(EntityType.POST, postId, null, userId));
+            }
+            for (Document comment : post.getList("comments", Document.class, List.of())) {
+                String commentId = String.valueOf(comment.get("_id"));
+                for (String userId : comment.getList("likes", String.class, List.of())) {
+                    edgeWrites.add(edgeUpsert(EntityType.COMMENT, commentId, postId, userId));
+                }
+            }
+            migratedPostIds.add(post.get("_id"));
+            migratedPosts++;
+
+            if (migratedPostIds.size() >= BATCH_SIZE) {
+                flush(posts, likes, edgeWrites, migratedPostIds);
+            }
+        }
+        flush(posts, likes, edgeWrites, migratedPostIds);
+
+        if (migratedPosts > 0) {
+            log.info("Migrated likes for {} posts", migratedPosts);
+        }
+    }
+
+    private static WriteModel<Document> edgeUpsert(EntityType type, String entityId, String parentId, String userId) {
+        Bson onInsert = parentId == null
+            ? Updates.setOnInsert("createdAt", new Date())
+            : Updates.combine(Updates.setOnInsert("createdAt", new Date()), Updates.setOnInsert("parentId", parentId));
+        return new UpdateOneModel<>(
+            Filters.and(Filters.eq("entityType", type.name()), Filters.eq("entityId", entityId), Filters.eq("userId", userId)),
+            onInsert,
+            new UpdateOptions().upsert(true));
+    }
+
+    private static void flush(MongoCollection<Document> posts, MongoCollection<Document> likes,
+                              List<WriteModel<Document>> edgeWrites, List<Object> migratedPostIds) {
+        if (!edgeWrites.isEmpty()) {
+            likes.bulkWrite(edgeWrites, new BulkWriteOptions().ordered(false));
+            edgeWrites.clear();
+        }
+        if (!migratedPostIds.isEmpty()) {
+            // Comment totals are added to, in case likes were recorded as edges while this ran
+            Document commentCounts = new Document("$map", new Document("input", new Document("$ifNull", List.of("$comments", List.of())))
+                .append("as", "c")
+                .append("in", new Document("$mergeObjects", List.of("$$c",
+                    new Document("likeCount", new Document("$add", List.of(
+                        new Document("$ifNull", List.of("$$c.likeCount", 0)),
+                        new Document("$size", new Document("$ifNull", List.of("$$c.likes", List.of()))))))))));
+            posts.updateMany(Filters.and(Filters.in("_id", migratedPostIds), HAS_LIKE_ARRAYS), List.of(
+                new Document("$set", new Document("comments", commentCounts)),
+                new Document("$unset", List.of("likes", "comments.likes"))));
+            migratedPostIds.clear();
+        }
+    }
+}
@@ -2,16 +2,30 @@
 package com.paf.server.model;
 
 import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * A comment on a post. Threads are paged oldest first on (postId, createdAt, _id); the post
+ * itself only embeds copies of its first few comments as a preview.
+ */
+@Document(collection = "comments")
+@CompoundIndex(name = "post_thread", def = "{'postId': 1, 'createdAt': 1, '_id': 1}")
 @Data
 public class Comment {
+    @Id
     private String id;
+    private String postId;
     private String userId;
     private String content;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private List<String> likes = new ArrayList<>();
-}
\ No newline at end of file
+    // Likes are LikeEdge documents; this total is maintained by LikeService
+    private long likeCount;
+    // Filled in per viewer when rendering, never stored
+    @Transient
+    private boolean likedByMe;
+}
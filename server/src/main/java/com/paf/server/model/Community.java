@@ -2,12 +2,24 @@ package com.paf.server.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "communities")
+@CompoundIndexes({
+    // Directory listings: public communities by activity or size, optionally narrowed by tag
+    @CompoundIndex(name = "directory_activity", def = "{'isPrivate': 1, 'lastMessageTime': -1, '_id': -1}"),
+    @CompoundIndex(name = "directory_size", def = "{'isPrivate': 1, 'memberCount': -1, '_id': -1}"),
+    @CompoundIndex(name = "directory_tag_activity", def = "{'tags': 1, 'isPrivate': 1, 'lastMessageTime': -1, '_id': -1}"),
+    @CompoundIndex(name = "directory_tag_size", def = "{'tags': 1, 'isPrivate': 1, 'memberCount': -1, '_id': -1}"),
+    // A user's communities: one index per $or branch, both already in activity order
+    @CompoundIndex(name = "member_activity", def = "{'members': 1, 'lastMessageTime': -1, '_id': -1}"),
+    @CompoundIndex(name = "owner_activity", def = "{'ownerId': 1, 'lastMessageTime': -1, '_id': -1}")
+})
 @Data
 public class Community {
     @Id
@@ -17,6 +29,7 @@ public class Community {
     private String ownerId;
     private boolean isPrivate;
     private List<String> members = new ArrayList<>();
+    private int memberCount;
     private List<String> tags = new ArrayList<>();
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
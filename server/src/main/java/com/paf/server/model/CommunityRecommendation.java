@@ -0,0 +1,15 @@
+package com.paf.server.model;
+
+import java.util.List;
+
+/**
+ * A suggested community with the score it was ranked by and the user terms it matched.
+ */
+public record CommunityRecommendation(String id,
+                                      String name,
+                                      String description,
+                                      List<String> tags,
+                                      int memberCount,
+                                      double score,
+                                      List<String> matchedTags) {
+}
@@ -0,0 +1,16 @@
+package com.paf.server.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Directory view of a community, without its member list.
+ */
+public record CommunitySummary(String id,
+                               String name,
+                               String description,
+                               List<String> tags,
+                               int memberCount,
+                               String lastMessagePreview,
+                               LocalDateTime lastMessageTime) {
+}
@@ -0,0 +1,9 @@
+package com.paf.server.model;
+
+import java.util.List;
+
+/**
+ * A page of results plus the opaque cursor for the next page ({@code null} on the last page).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
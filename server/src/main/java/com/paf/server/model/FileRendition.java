@@ -0,0 +1,38 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rendition job for one uploaded image, keyed by the uploaded object name. The document
+ * doubles as the dedup lock: a job only runs for the request that created or reclaimed it.
+ */
+@Document(collection = "file_renditions")
+@Data
+public class FileRendition {
+
+    public enum Status {
+        PENDING,
+        PROCESSING,
+        READY,
+        FAILED,
+        // The worker pool was full; the original is served until the job is requested again
+        SKIPPED
+    }
+
+    @Id
+    private String id;
+    private Status status;
+    // Rendition name ("thumbnail", "medium", "original") -> object name
+    private Map<String, String> renditions = new HashMap<>();
+    private Integer width;
+    private Integer height;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * One "follower follows followee" relationship. Pages are walked newest first by _id,
+ * so each direction has its own (userId, _id) index.
+ */
+@Document(collection = "follows")
+@CompoundIndexes({
+    @CompoundIndex(name = "follower_followee", def = "{'followerId': 1, 'followeeId': 1}", unique = true),
+    @CompoundIndex(name = "followee_recent", def = "{'followeeId': 1, '_id': -1}"),
+    @CompoundIndex(name = "follower_recent", def = "{'followerId': 1, '_id': -1}")
+})
+@Data
+public class FollowEdge {
+    @Id
+    private String id;
+    private String followerId;
+    private String followeeId;
+    private LocalDateTime createdAt;
+}
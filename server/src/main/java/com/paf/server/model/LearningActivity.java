@@ -0,0 +1,27 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One month of a user's topic completions. The id is {@code <userId>|<yyyy-MM>} and
+ * {@code days} maps the day of month ("1".."31") to the number of topics completed that day,
+ * so a year of history is at most twelve small documents.
+ */
+@Document(collection = "learning_activity")
+// Newest months first, for streaks walking backwards from today
+@CompoundIndex(name = "user_month", def = "{'userId': 1, 'month': -1}")
+@Data
+public class LearningActivity {
+    @Id
+    private String id;
+    private String userId;
+    private String month;
+    private Map<String, Integer> days = new HashMap<>();
+    private int total;
+}
@@ -0,0 +1,26 @@
+package com.paf.server.model;
+
+/**
+ * Dashboard view of a {@link LearningRollup}.
+ */
+public record LearningCategoryStats(String skillCategory,
+                                    long planCount,
+                                    long completedPlans,
+                                    double completionRate,
+                                    double averageProgress,
+                                    Double averageDaysToComplete) {
+
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000d;
+
+    public static LearningCategoryStats of(LearningRollup rollup) {
+        long plans = rollup.getPlanCount();
+        long completed = rollup.getCompletedPlans();
+        return new LearningCategoryStats(
+            rollup.getSkillCategory(),
+            plans,
+            completed,
+            plans == 0 ? 0 : (double) completed / plans,
+            plans == 0 ? 0 : (double) rollup.getProgressSum() / plans,
+            completed == 0 ? null : rollup.getCompletionMillisSum() / MILLIS_PER_DAY / completed);
+    }
+}
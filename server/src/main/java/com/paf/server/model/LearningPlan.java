@@ -3,12 +3,16 @@ package com.paf.server.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "learning_plans")
+// A user's plans, most recently updated first; also serves the summary cursor
+@CompoundIndex(name = "user_recent", def = "{'userId': 1, 'updatedAt': -1, '_id': -1}")
 @Data
 public class LearningPlan {
     @Id
@@ -18,9 +22,16 @@ public class LearningPlan {
     private String description;
     private String skillCategory;
     private int progress = 0;
+    // Maintained alongside topics so progress never needs a scan of the array
+    private int completedTopics;
+    private int totalTopics;
     private List<PlanTopic> topics;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Set when the last open topic is completed, cleared if the plan is reopened
+    private LocalDateTime completedAt;
+    @Version
+    private Long version;
 
     @Data
     public static class PlanTopic {
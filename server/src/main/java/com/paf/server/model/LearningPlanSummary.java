@@ -0,0 +1,15 @@
+package com.paf.server.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a learning plan, without its topics.
+ */
+public record LearningPlanSummary(String id,
+                                  String title,
+                                  String skillCategory,
+                                  int progress,
+                                  int completedTopics,
+                                  int totalTopics,
+                                  LocalDateTime updatedAt) {
+}
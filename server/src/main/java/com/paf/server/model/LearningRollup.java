@@ -0,0 +1,28 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals for one skill category within a scope: {@code global} or {@code user:<id>}.
+ * The id is {@code <scope>|<category>}, so a dashboard tile is a single primary-key read.
+ */
+@Document(collection = "learning_rollups")
+@Data
+public class LearningRollup {
+    @Id
+    private String id;
+    @Indexed
+    private String scope;
+    private String skillCategory;
+    private long planCount;
+    private long completedPlans;
+    private long progressSum;
+    // Sum of createdAt -> completedAt over completed plans
+    private long completionMillisSum;
+    private LocalDateTime updatedAt;
+}
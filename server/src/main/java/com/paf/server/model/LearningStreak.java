@@ -0,0 +1,9 @@
+package com.paf.server.model;
+
+import java.time.LocalDate;
+
+/**
+ * Consecutive days with at least one completed topic, ending today or yesterday.
+ */
+public record LearningStreak(int currentStreak, LocalDate lastActiveDate) {
+}
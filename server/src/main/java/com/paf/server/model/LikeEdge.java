@@ -0,0 +1,34 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * One user's like of a post or comment. The unique index makes a like idempotent and also
+ * answers "which of these did I like" for a page of entities in one query. Comment likes
+ * carry the post id as {@code parentId} so deleting a post can drop them all.
+ */
+@Document(collection = "likes")
+@CompoundIndexes({
+    @CompoundIndex(name = "entity_user", def = "{'entityType': 1, 'entityId': 1, 'userId': 1}", unique = true),
+    @CompoundIndex(name = "parent", def = "{'parentId': 1}", sparse = true)
+})
+@Data
+public class LikeEdge {
+    @Id
+    private String id;
+    private EntityType entityType;
+    private String entityId;
+    private String parentId;
+    private String userId;
+    private LocalDateTime createdAt;
+
+    public enum EntityType {
+        POST,
+        COMMENT
+    }
+}
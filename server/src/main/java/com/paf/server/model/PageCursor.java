@@ -0,0 +1,85 @@
+package com.paf.server.model;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last item of a {@link CursorPage}: its sort value and id, sent to
+ * clients as URL-safe Base64 of {@code value|id}. An empty value stands for a {@code null}
+ * sort value. Malformed cursors are rejected with {@link IllegalArgumentException}, which
+ * controllers answer with 400.
+ */
+public record PageCursor(String value, String id) {
+
+    public static String encode(Object value, String id) {
+        String raw = (value == null ? "" : value.toString()) + "|" + (id == null ? "" : id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return {@code null} when there is no cursor, i.e. the first page
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+        // Sort values are dates and numbers and ids are hex or UUIDs, so neither contains '|'
+        int separator = decoded.lastIndexOf('|');
+        if (separator < 0) {
+            throw invalid();
+        }
+        return new PageCursor(decoded.substring(0, separator), decoded.substring(separator + 1));
+    }
+
+    public boolean hasValue() {
+        return !value.isEmpty();
+    }
+
+    public boolean hasId() {
+        return !id.isEmpty();
+    }
+
+    public LocalDateTime dateValue() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw invalid();
+        }
+    }
+
+    public int intValue() {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw invalid();
+        }
+    }
+
+    public String requiredId() {
+        if (!hasId()) {
+            throw invalid();
+        }
+        return id;
+    }
+
+    public ObjectId objectId() {
+        if (!ObjectId.isValid(id)) {
+            throw invalid();
+        }
+        return new ObjectId(id);
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Invalid cursor");
+    }
+}
@@ -0,0 +1,38 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user's post. Profile pages walk an author's posts newest first by _id; home feeds
+ * reference posts from {@link TimelineBucket}s and only query by (author, createdAt) for
+ * accounts that are read on demand.
+ */
+@Document(collection = "posts")
+@CompoundIndexes({
+    @CompoundIndex(name = "author_recent", def = "{'userId': 1, '_id': -1}"),
+    @CompoundIndex(name = "author_created", def = "{'userId': 1, 'createdAt': -1}")
+})
+@Data
+public class Post {
+    @Id
+    private String id;
+    private String userId;
+    private String content;
+    private String skillCategory;
+    private List<String> tags = new ArrayList<>();
+    private List<String> mediaUrls = new ArrayList<>();
+    // Likes are LikeEdge documents; this total is maintained by LikeService
+    private long likeCount;
+    // The first posts.comment-preview-size comments; the full thread is in the comments collection
+    private List<Comment> comments = new ArrayList<>();
+    private int commentCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,10 @@
+package com.paf.server.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A post as rendered in feeds: the post's own fields plus its author's summary under {@code user}
+ * and whether the viewer has liked it.
+ */
+public record PostView(@JsonUnwrapped Post post, UserSummary user, boolean likedByMe) {
+}
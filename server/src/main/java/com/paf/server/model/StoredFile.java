@@ -0,0 +1,45 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content index entry for one stored object, keyed by the SHA-256 of its bytes. Every
+ * upload of the same content adds a reference instead of a new object; objects left with
+ * no references are removed by the storage garbage collector.
+ */
+@Document(collection = "stored_files")
+// Garbage collection scans unreferenced entries by release time
+@CompoundIndex(name = "gc_candidates", def = "{'refCount': 1, 'releasedAt': 1}")
+@Data
+public class StoredFile {
+
+    public enum Status {
+        // Index entry exists, object write not confirmed yet
+        PENDING,
+        STORED,
+        // Claimed by the garbage collector
+        DELETING
+    }
+
+    @Id
+    private String id;
+    @Indexed(unique = true)
+    private String objectName;
+    private String contentType;
+    private long size;
+    private long refCount;
+    private Status status;
+    // References held per uploader; a user may only release references they added
+    private Map<String, Long> refs = new HashMap<>();
+    private LocalDateTime createdAt;
+    private LocalDateTime lastReferencedAt;
+    private LocalDateTime releasedAt;
+}
@@ -0,0 +1,34 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A slice of one user's precomputed home timeline. New posts are pushed to the front of the
+ * owner's open bucket until it holds {@code timeline.bucket-size} entries, then a new bucket
+ * is started, so a feed page is a single document read. {@code count} only ever grows; it
+ * tracks used slots, not live posts.
+ */
+@Document(collection = "home_timelines")
+@CompoundIndex(name = "owner_recent", def = "{'ownerId': 1, '_id': -1}")
+@Data
+public class TimelineBucket {
+    @Id
+    private String id;
+    private String ownerId;
+    private int count;
+    private List<Entry> entries = new ArrayList<>();
+    private LocalDateTime newest;
+
+    @Data
+    public static class Entry {
+        private String postId;
+        private String authorId;
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,19 @@
+package com.paf.server.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of topic changes applied to one learning plan in a single update. Deletions are
+ * applied first, then additions, completions and finally the new order.
+ */
+@Data
+public class TopicBulkRequest {
+    private List<LearningPlan.PlanTopic> add = new ArrayList<>();
+    private List<String> complete = new ArrayList<>();
+    private List<String> delete = new ArrayList<>();
+    // Topic ids in their new order; topics not listed keep their relative order after these
+    private List<String> order = new ArrayList<>();
+}
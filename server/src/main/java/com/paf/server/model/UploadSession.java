@@ -0,0 +1,42 @@
+package com.paf.server.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable upload in progress. Bytes received so far live in a part file on the node
+ * that accepted the session; {@code receivedBytes} is the offset the next chunk must start at.
+ */
+@Document(collection = "upload_sessions")
+@Data
+public class UploadSession {
+
+    public enum Status {
+        OPEN,
+        // Claimed by a finalize call; chunks are no longer accepted
+        COMPLETING,
+        COMPLETED
+    }
+
+    @Id
+    private String id;
+    private String ownerId;
+    private String filename;
+    private String contentType;
+    private long totalSize;
+    private long receivedBytes;
+    private Status status;
+    // Lease held by the request writing the next chunk, claimed before any byte is written
+    private String writer;
+    private LocalDateTime writingUntil;
+    // Set once completed, so a repeated finalize returns the same object
+    private String objectName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    @Indexed
+    private LocalDateTime expiresAt;
+}
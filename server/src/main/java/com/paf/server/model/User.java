@@ -1,7 +1,10 @@
 package com.paf.server.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,9 +15,16 @@ public class User {
     @Id
     private String id;
     private String name;
+    @Indexed(unique = true, sparse = true)
     private String email;
+    @JsonIgnore
     private String password;
     private String profilePicture;
+    // Last values seen from the OAuth provider, to tell provider changes from profile edits
+    @JsonIgnore
+    private String providerName;
+    @JsonIgnore
+    private String providerPicture;
     private String bio;
     private String location;
     private List<String> skills = new ArrayList<>();
@@ -22,8 +32,13 @@ public class User {
     private List<String> roles = new ArrayList<>();
     private List<String> communities = new ArrayList<>();
     private List<String> ownedCommunities = new ArrayList<>();
-    private List<String> following = new ArrayList<>();
-    private List<String> followers = new ArrayList<>();
+    // The graph itself lives in the follows collection; these are denormalized totals
+    private long followerCount;
+    private long followingCount;
+    // Posts are looked up by author in the posts collection; postIds is kept for older clients
+    private long postCount;
     private List<String> postIds = new ArrayList<>();
+    @Version
+    private Long version;
 
 }
\ No newline at end of file
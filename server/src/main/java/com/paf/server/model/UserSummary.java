@@ -0,0 +1,7 @@
+package com.paf.server.model;
+
+/**
+ * Compact view of a user for rendering names and avatars next to content.
+ */
+public record UserSummary(String id, String name, String profilePicture) {
+}
@@ -0,0 +1,9 @@
+package com.paf.server.repository;
+
+import com.paf.server.model.FollowEdge;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface FollowEdgeRepository extends MongoRepository<FollowEdge, String> {
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+    long deleteByFollowerIdAndFolloweeId(String followerId, String followeeId);
+}
@@ -0,0 +1,7 @@
+package com.paf.server.repository;
+
+import com.paf.server.model.Post;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface PostRepository extends MongoRepository<Post, String> {
+}
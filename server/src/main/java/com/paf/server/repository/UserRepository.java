@@ -3,9 +3,15 @@ package com.paf.server.repository;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import com.paf.server.model.User;
+import com.paf.server.model.UserSummary;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+
+    // Closed DTO projection: only id, name and profilePicture are read from Mongo
+    List<UserSummary> findByIdIn(Collection<String> ids);
 }
\ No newline at end of file
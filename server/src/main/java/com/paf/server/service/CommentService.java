@@ -0,0 +1,176 @@
+package com.paf.server.service;
+
+import com.paf.server.model.Comment;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.PageCursor;
+import com.paf.server.model.LikeEdge.EntityType;
+import com.paf.server.model.Post;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Comment threads. Comments live in their own collection and are paged oldest first; each
+ * post embeds copies of only its first {@code posts.comment-preview-size} comments, so a
+ * feed page stays the same size however long its threads get.
+ */
+@Slf4j
+@Service
+public class CommentService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationService notificationService;
+    private final LikeService likeService;
+    private final int previewSize;
+
+    public CommentService(MongoTemplate mongoTemplate,
+                          NotificationService notificationService,
+                          LikeService likeService,
+                          @Value("${posts.comment-preview-size:3}") int previewSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.notificationService = notificationService;
+        this.likeService = likeService;
+        this.previewSize = previewSize;
+    }
+
+    /**
+     * @return the post with its updated preview, or empty if the post does not exist
+     */
+    public Optional<Post> addComment(String postId, String userId, String content) {
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("Comment content is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Comment comment = new Comment();
+        // Not an ObjectId, so the id is stored and matched as the same string in the preview copy
+        comment.setId(UUID.randomUUID().toString());
+        comment.setPostId(postId);
+        comment.setUserId(userId);
+        comment.setContent(content);
+        comment.setCreatedAt(now);
+        comment.setUpdatedAt(now);
+        mongoTemplate.insert(comment);
+
+        // $slice keeps the first few, so later comments only bump the count
+        Post updated = mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(postId)),
+            new Update().push("comments").slice(previewSize).each(comment).inc("commentCount", 1),
+            FindAndModifyOptions.options().returnNew(true), Post.class);
+        if (updated == null) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(comment.getId())), Comment.class);
+            return Optional.empty();
+        }
+        notificationService.createNewCommentNotification(postId, userId, updated.getUserId(), content);
+        return Optional.of(updated);
+    }
+
+    /**
+     * Removes a comment on behalf of its author or the post's author.
+     *
+     * @return empty when there is no such comment the user may delete
+     */
+    public Optional<Post> deleteComment(String postId, String commentId, String userId) {
+        Post post = mongoTemplate.findById(postId, Post.class);
+        if (post == null) {
+            return Optional.empty();
+        }
+        Criteria criteria = Criteria.where("_id").is(commentId).and("postId").is(postId);
+        if (!userId.equals(post.getUserId())) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (mongoTemplate.remove(new Query(criteria), Comment.class).getDeletedCount() == 0) {
+            return Optional.empty();
+        }
+        likeService.deleteForComment(commentId);
+
+        Update update = new Update().inc("commentCount", -1);
+        boolean inPreview = post.getComments().stream().anyMatch(comment -> commentId.equals(comment.getId()));
+        if (inPreview) {
+            // The next comment in the thread moves up into the preview
+            update.set("comments", firstComments(postId, previewSize));
+        }
+        Post updated = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(postId)), update,
+            FindAndModifyOptions.options().returnNew(true), Post.class);
+        return Optional.ofNullable(updated);
+    }
+
+    /**
+     * Likes the comment, or removes the like if the user already liked it.
+     */
+    public Optional<Post> toggleCommentLike(String postId, String commentId, String userId) {
+        Comment comment = mongoTemplate.findOne(
+            new Query(Criteria.where("_id").is(commentId).and("postId").is(postId)), Comment.class);
+        if (comment == null) {
+            return Optional.empty();
+        }
+        if (likeService.toggle(EntityType.COMMENT, commentId, postId, userId)) {
+            notificationService.createCommentLikeNotification(commentId, userId, comment.getUserId(), postId);
+        }
+        return Optional.ofNullable(mongoTemplate.findById(postId, Post.class));
+    }
+
+    /**
+     * One page of a post's thread, oldest first. An unknown post simply has no comments.
+     */
+    public CursorPage<Comment> getComments(String postId, String cursor, int limit, String viewerId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where("postId").is(postId);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, after(cursor));
+        }
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+            .limit(pageSize + 1);
+        List<Comment> comments = mongoTemplate.find(query, Comment.class);
+
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = comments.subList(0, pageSize);
+            Comment last = comments.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        Set<String> liked = likeService.likedBy(viewerId, EntityType.COMMENT, comments.stream().map(Comment::getId).toList());
+        for (Comment comment : comments) {
+            comment.setLikeCount(likeService.likeCount(EntityType.COMMENT, comment.getId(), comment.getLikeCount()));
+            comment.setLikedByMe(liked.contains(comment.getId()));
+        }
+        return new CursorPage<>(comments, nextCursor);
+    }
+
+    public void deleteForPost(String postId) {
+        mongoTemplate.remove(new Query(Criteria.where("postId").is(postId)), Comment.class);
+    }
+
+    private List<Comment> firstComments(String postId, int count) {
+        Query query = new Query(Criteria.where("postId").is(postId))
+            .with(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+            .limit(count);
+        return mongoTemplate.find(query, Comment.class);
+    }
+
+    // Everything strictly after the cursor position in (createdAt asc, _id asc) order
+    private static Criteria after(String cursor) {
+        PageCursor position = PageCursor.decode(cursor);
+        String lastId = position.requiredId();
+        LocalDateTime createdAt = position.dateValue();
+        return new Criteria().orOperator(
+            Criteria.where("createdAt").gt(createdAt),
+            Criteria.where("createdAt").is(createdAt).and("_id").gt(lastId));
+    }
+}
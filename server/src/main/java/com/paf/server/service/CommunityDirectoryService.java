@@ -0,0 +1,132 @@
+package com.paf.server.service;
+
+import com.paf.server.model.Community;
+import com.paf.server.model.CommunitySummary;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.PageCursor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Public community directory. Pages are keyset-paginated on (sort field, _id) so each page
+ * is a bounded walk over one of the directory indexes declared on {@link Community}.
+ */
+@Service
+public class CommunityDirectoryService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    public enum DirectorySort {
+        ACTIVITY("lastMessageTime"),
+        SIZE("memberCount");
+
+        private final String field;
+
+        DirectorySort(String field) {
+            this.field = field;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    public CommunityDirectoryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public CursorPage<CommunitySummary> getDirectory(List<String> tags, DirectorySort sort, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("isPrivate").is(false));
+        if (tags != null && !tags.isEmpty()) {
+            criteria.add(Criteria.where("tags").all(tags));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.add(after(sort, cursor));
+        }
+
+        Query query = new Query(new Criteria().andOperator(criteria))
+            .with(Sort.by(Sort.Direction.DESC, sort.field).and(Sort.by(Sort.Direction.DESC, "_id")))
+            .limit(pageSize + 1);
+
+        List<CommunitySummary> communities = mongoTemplate.query(Community.class)
+            .as(CommunitySummary.class)
+            .matching(query)
+            .all();
+
+        String nextCursor = null;
+        if (communities.size() > pageSize) {
+            communities = communities.subList(0, pageSize);
+            nextCursor = encodeCursor(sort, communities.get(pageSize - 1));
+        }
+        return new CursorPage<>(communities, nextCursor);
+    }
+
+    /**
+     * Communities the user belongs to or owns, most recently active first, from a single
+     * $or query keyset-paginated like the activity directory, so deep pages cost no more
+     * than the first.
+     */
+    public CursorPage<CommunitySummary> getUserCommunities(String userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = new Criteria().orOperator(
+            Criteria.where("members").is(userId),
+            Criteria.where("ownerId").is(userId));
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, after(DirectorySort.ACTIVITY, cursor));
+        }
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, DirectorySort.ACTIVITY.field).and(Sort.by(Sort.Direction.DESC, "_id")))
+            .limit(pageSize + 1);
+
+        List<CommunitySummary> communities = mongoTemplate.query(Community.class)
+            .as(CommunitySummary.class)
+            .matching(query)
+            .all();
+
+        String nextCursor = null;
+        if (communities.size() > pageSize) {
+            communities = communities.subList(0, pageSize);
+            nextCursor = encodeCursor(DirectorySort.ACTIVITY, communities.get(pageSize - 1));
+        }
+        return new CursorPage<>(communities, nextCursor);
+    }
+
+    // Everything strictly after the cursor position in (field desc, _id desc) order
+    private static Criteria after(DirectorySort sort, String cursor) {
+        PageCursor position = PageCursor.decode(cursor);
+        ObjectId lastId = position.objectId();
+        if (sort == DirectorySort.SIZE) {
+            int memberCount = position.intValue();
+            return new Criteria().orOperator(
+                Criteria.where(sort.field).lt(memberCount),
+                Criteria.where(sort.field).is(memberCount).and("_id").lt(lastId));
+        }
+
+        // Communities without messages sort after all others
+        if (!position.hasValue()) {
+            return Criteria.where(sort.field).is(null).and("_id").lt(lastId);
+        }
+        LocalDateTime lastMessageTime = position.dateValue();
+        return new Criteria().orOperator(
+            Criteria.where(sort.field).lt(lastMessageTime),
+            Criteria.where(sort.field).is(lastMessageTime).and("_id").lt(lastId),
+            Criteria.where(sort.field).is(null));
+    }
+
+    private static String encodeCursor(DirectorySort sort, CommunitySummary last) {
+        Object value = switch (sort) {
+            case SIZE -> last.memberCount();
+            case ACTIVITY -> last.lastMessageTime();
+        };
+        return PageCursor.encode(value, last.id());
+    }
+}
@@ -0,0 +1,299 @@
+package com.paf.server.service;
+
+import com.paf.server.event.CommunityChangedEvent;
+import com.paf.server.model.Community;
+import com.paf.server.model.CommunityRecommendation;
+import com.paf.server.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Ranks public communities for a user by the overlap between the user's skills/interests
+ * and community tags, boosted by recent activity.
+ *
+ * <p>Requests are answered from an in-memory inverted index (tag to community ids) holding a
+ * cached activity score per community. The index is rebuilt from Mongo once the application
+ * is ready (after the startup migrations) and periodically after that, kept current between
+ * rebuilds from {@link CommunityChangedEvent}s, and rescored on a timer so the recency decay
+ * stays fresh.
+ */
+@Slf4j
+@Service
+public class CommunityRecommendationService {
+
+    private static final int POPULAR_SIZE = 100;
+    private static final int MAX_LIMIT = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final double halfLifeHours;
+    private final double activityWeight;
+
+    private volatile Index index = new Index();
+    // Guards the swap to a rebuilt index against concurrent events
+    private final Object swapLock = new Object();
+    // Communities changed while a rebuild runs, null otherwise; guarded by swapLock
+    private Set<String> changedDuringRebuild;
+
+    public CommunityRecommendationService(MongoTemplate mongoTemplate,
+                                          @Value("${recommendations.activity-half-life-hours:168}") double halfLifeHours,
+                                          @Value("${recommendations.activity-weight:0.25}") double activityWeight) {
+        this.mongoTemplate = mongoTemplate;
+        this.halfLifeHours = halfLifeHours;
+        this.activityWeight = activityWeight;
+    }
+
+    public List<CommunityRecommendation> recommend(User user, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Index current = index;
+
+        Set<String> joined = new HashSet<>(user.getCommunities());
+        joined.addAll(user.getOwnedCommunities());
+
+        Set<String> terms = new LinkedHashSet<>();
+        Stream.concat(user.getSkills().stream(), user.getInterests().stream())
+            .map(CommunityRecommendationService::normalize)
+            .filter(term -> !term.isEmpty())
+            .forEach(terms::add);
+
+        if (terms.isEmpty()) {
+            return current.popular.stream()
+                .filter(entry -> !joined.contains(entry.id))
+                .limit(size)
+                .map(entry -> entry.toRecommendation(entry.activityScore, List.of()))
+                .toList();
+        }
+
+        Map<String, List<String>> matches = new HashMap<>();
+        for (String term : terms) {
+            for (String communityId : current.postings.getOrDefault(term, Set.of())) {
+                if (!joined.contains(communityId)) {
+                    matches.computeIfAbsent(communityId, id -> new ArrayList<>()).add(term);
+                }
+            }
+        }
+
+        PriorityQueue<CommunityRecommendation> top = new PriorityQueue<>(
+            Comparator.comparingDouble(CommunityRecommendation::score));
+        matches.forEach((communityId, matchedTags) -> {
+            Entry entry = current.communities.get(communityId);
+            if (entry == null) {
+                return;
+            }
+            double score = matchedTags.size() * (1 + activityWeight * entry.activityScore);
+            top.offer(entry.toRecommendation(score, matchedTags));
+            if (top.size() > size) {
+                top.poll();
+            }
+        });
+
+        List<CommunityRecommendation> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(CommunityRecommendation::score).reversed());
+        return ranked;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Builds a new index from Mongo and swaps it in. Events keep updating the live index
+     * meanwhile and record which communities they touched; those are re-read into the new
+     * index before the swap, so no change made during the rebuild is lost. Re-reading takes
+     * the stored state rather than replaying deltas, so nothing is counted twice either.
+     */
+    @Scheduled(initialDelayString = "${recommendations.rebuild-interval-ms:3600000}",
+               fixedDelayString = "${recommendations.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        synchronized (swapLock) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            Query query = new Query(Criteria.where("isPrivate").is(false));
+            query.fields().exclude("members");
+
+            Index rebuilt = new Index();
+            LocalDateTime now = LocalDateTime.now();
+            try (Stream<Community> communities = mongoTemplate.stream(query, Community.class)) {
+                communities.forEach(community -> rebuilt.add(new Entry(community, score(community.getMemberCount(),
+                    lastActivity(community), now))));
+            }
+
+            while (true) {
+                Set<String> changed;
+                synchronized (swapLock) {
+                    if (changedDuringRebuild.isEmpty()) {
+                        rebuilt.refreshPopular();
+                        index = rebuilt;
+                        break;
+                    }
+                    changed = changedDuringRebuild;
+                    changedDuringRebuild = new HashSet<>();
+                }
+                reload(rebuilt, changed);
+            }
+            log.info("Rebuilt community recommendation index with {} communities and {} tags",
+                rebuilt.communities.size(), rebuilt.postings.size());
+        } finally {
+            synchronized (swapLock) {
+                changedDuringRebuild = null;
+            }
+        }
+    }
+
+    private void reload(Index rebuilt, Set<String> communityIds) {
+        Query query = new Query(Criteria.where("_id").in(communityIds));
+        query.fields().exclude("members");
+        LocalDateTime now = LocalDateTime.now();
+        communityIds.forEach(rebuilt::remove);
+        for (Community community : mongoTemplate.find(query, Community.class)) {
+            if (!community.isPrivate()) {
+                rebuilt.add(new Entry(community, score(community.getMemberCount(), lastActivity(community), now)));
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${recommendations.rescore-interval-ms:300000}",
+               fixedDelayString = "${recommendations.rescore-interval-ms:300000}")
+    public void rescore() {
+        Index current = index;
+        LocalDateTime now = LocalDateTime.now();
+        current.communities.values().forEach(entry ->
+            entry.activityScore = score(entry.memberCount.get(), entry.lastActivity, now));
+        current.refreshPopular();
+    }
+
+    @EventListener
+    public void onCommunityChanged(CommunityChangedEvent event) {
+        synchronized (swapLock) {
+            apply(index, event);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.created() != null ? event.created().getId() : event.communityId());
+            }
+        }
+    }
+
+    private void apply(Index current, CommunityChangedEvent event) {
+        if (event.created() != null) {
+            if (!event.created().isPrivate()) {
+                current.add(new Entry(event.created(), score(event.created().getMemberCount(),
+                    lastActivity(event.created()), LocalDateTime.now())));
+            }
+            return;
+        }
+
+        Entry entry = current.communities.get(event.communityId());
+        if (entry == null) {
+            return;
+        }
+        if (event.memberDelta() != 0) {
+            entry.memberCount.addAndGet(event.memberDelta());
+        }
+        if (event.lastMessageTime() != null) {
+            entry.lastActivity = event.lastMessageTime();
+        }
+        entry.activityScore = score(entry.memberCount.get(), entry.lastActivity, LocalDateTime.now());
+    }
+
+    // log-scaled size, halved for every half-life since the community was last active
+    private double score(int memberCount, LocalDateTime lastActivity, LocalDateTime now) {
+        if (lastActivity == null) {
+            return 0;
+        }
+        double ageHours = Math.max(0, Duration.between(lastActivity, now).toMinutes() / 60.0);
+        return Math.log1p(Math.max(memberCount, 0)) * Math.pow(0.5, ageHours / halfLifeHours);
+    }
+
+    private static LocalDateTime lastActivity(Community community) {
+        return community.getLastMessageTime() != null ? community.getLastMessageTime() : community.getCreatedAt();
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Index {
+        final Map<String, Entry> communities = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+        volatile List<Entry> popular = List.of();
+
+        void remove(String communityId) {
+            Entry entry = communities.remove(communityId);
+            if (entry != null) {
+                for (String tag : entry.normalizedTags) {
+                    Set<String> ids = postings.get(tag);
+                    if (ids != null) {
+                        ids.remove(communityId);
+                    }
+                }
+            }
+        }
+
+        void add(Entry entry) {
+            communities.put(entry.id, entry);
+            for (String tag : entry.normalizedTags) {
+                postings.computeIfAbsent(tag, key -> ConcurrentHashMap.newKeySet()).add(entry.id);
+            }
+        }
+
+        // Fallback ranking for users with no skills or interests
+        void refreshPopular() {
+            popular = communities.values().stream()
+                .sorted(Comparator.comparingDouble((Entry entry) -> entry.activityScore).reversed())
+                .limit(POPULAR_SIZE)
+                .toList();
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String name;
+        final String description;
+        final List<String> tags;
+        final Set<String> normalizedTags = new HashSet<>();
+        final AtomicInteger memberCount;
+        volatile LocalDateTime lastActivity;
+        volatile double activityScore;
+
+        Entry(Community community, double activityScore) {
+            this.id = community.getId();
+            this.name = community.getName();
+            this.description = community.getDescription();
+            this.tags = community.getTags() == null ? List.of() : List.copyOf(community.getTags());
+            this.memberCount = new AtomicInteger(community.getMemberCount());
+            this.lastActivity = lastActivity(community);
+            this.activityScore = activityScore;
+            tags.stream()
+                .map(CommunityRecommendationService::normalize)
+                .filter(tag -> !tag.isEmpty())
+                .forEach(normalizedTags::add);
+        }
+
+        CommunityRecommendation toRecommendation(double score, List<String> matchedTags) {
+            return new CommunityRecommendation(id, name, description, tags, memberCount.get(), score, matchedTags);
+        }
+    }
+}
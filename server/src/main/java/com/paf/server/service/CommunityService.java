@@ -0,0 +1,118 @@
+package com.paf.server.service;
+
+import com.paf.server.event.CommunityChangedEvent;
+import com.paf.server.model.Community;
+import com.paf.server.model.CommunityMessage;
+import com.paf.server.model.User;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Membership and activity writes for communities. Every change is a single conditional
+ * update on the affected fields, so concurrent joins, leaves and messages never overwrite
+ * each other and nothing rewrites a whole community or user document.
+ */
+@Slf4j
+@Service
+public class CommunityService {
+
+    public enum MembershipResult {
+        UPDATED,
+        ALREADY_MEMBER,
+        NOT_MEMBER,
+        NOT_FOUND
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CommunityService(MongoTemplate mongoTemplate,
+                            EntityCacheService entityCacheService,
+                            ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void communityCreated(Community community) {
+        eventPublisher.publishEvent(CommunityChangedEvent.created(community));
+    }
+
+    public MembershipResult join(String communityId, String userId) {
+        // The $ne guard makes the $inc happen exactly once per new member
+        UpdateResult result = mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(communityId).and("members").ne(userId)),
+            new Update().addToSet("members", userId).inc("memberCount", 1).set("updatedAt", LocalDateTime.now()),
+            Community.class);
+        if (result.getModifiedCount() == 0) {
+            return communityExists(communityId) ? MembershipResult.ALREADY_MEMBER : MembershipResult.NOT_FOUND;
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+            new Update().addToSet("communities", communityId), User.class);
+        evict(communityId, userId);
+        eventPublisher.publishEvent(CommunityChangedEvent.membersChanged(communityId, 1));
+        log.debug("User {} joined community {}", userId, communityId);
+        return MembershipResult.UPDATED;
+    }
+
+    public MembershipResult leave(String communityId, String userId) {
+        UpdateResult result = mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(communityId).and("members").is(userId)),
+            new Update().pull("members", userId).inc("memberCount", -1).set("updatedAt", LocalDateTime.now()),
+            Community.class);
+        if (result.getModifiedCount() == 0) {
+            return communityExists(communityId) ? MembershipResult.NOT_MEMBER : MembershipResult.NOT_FOUND;
+        }
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+            new Update().pull("communities", communityId), User.class);
+        evict(communityId, userId);
+        eventPublisher.publishEvent(CommunityChangedEvent.membersChanged(communityId, -1));
+        log.debug("User {} left community {}", userId, communityId);
+        return MembershipResult.UPDATED;
+    }
+
+    public void addOwnedCommunity(String userId, String communityId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+            new Update().addToSet("ownedCommunities", communityId), User.class);
+        entityCacheService.evictUser(userId);
+    }
+
+    /**
+     * Records the message as the community's latest activity unless a newer one already is.
+     * The cached community is deliberately left alone: chat is the hottest write path, the
+     * previews are read from Mongo by the directory queries, and a cached copy's last-message
+     * fields only lag by at most the entity cache TTL.
+     */
+    public void recordMessage(CommunityMessage message) {
+        Query query = new Query(Criteria.where("_id").is(message.getCommunityId())
+            .orOperator(
+                Criteria.where("lastMessageTime").lt(message.getTimestamp()),
+                Criteria.where("lastMessageTime").is(null)));
+        mongoTemplate.updateFirst(query,
+            new Update()
+                .set("lastMessagePreview", message.getContent())
+                .set("lastMessageTime", message.getTimestamp()),
+            Community.class);
+        eventPublisher.publishEvent(CommunityChangedEvent.messagePosted(message.getCommunityId(), message.getTimestamp()));
+    }
+
+    private boolean communityExists(String communityId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(communityId)), Community.class);
+    }
+
+    private void evict(String communityId, String userId) {
+        entityCacheService.evictCommunity(communityId);
+        entityCacheService.evictUser(userId);
+    }
+}
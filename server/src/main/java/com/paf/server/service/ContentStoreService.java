@@ -0,0 +1,279 @@
+package com.paf.server.service;
+
+import com.paf.server.model.FileRendition;
+import com.paf.server.model.StoredFile;
+import com.paf.server.storage.StorageBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Content-addressed uploads. The upload is hashed from the container's local copy before
+ * anything goes to storage, so content already in the index only gains a reference and
+ * costs no storage write. New content is stored as {@code <sha256>.<ext>}.
+ *
+ * <p>Releasing a reference never deletes anything directly. A scheduled collector removes
+ * objects, and their renditions, that have had no references for the grace period.
+ */
+@Slf4j
+@Service
+public class ContentStoreService {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final int GC_BATCH_SIZE = 100;
+
+    private final StorageBackend storageBackend;
+    private final SignedUrlService signedUrlService;
+    private final MongoTemplate mongoTemplate;
+    private final Duration gcGracePeriod;
+
+    public ContentStoreService(StorageBackend storageBackend,
+                               SignedUrlService signedUrlService,
+                               MongoTemplate mongoTemplate,
+                               @Value("${storage.gc.grace-period:1h}") Duration gcGracePeriod) {
+        this.storageBackend = storageBackend;
+        this.signedUrlService = signedUrlService;
+        this.mongoTemplate = mongoTemplate;
+        this.gcGracePeriod = gcGracePeriod;
+    }
+
+    /**
+     * Adds a reference to the content, writing it to storage only if it is not stored yet.
+     * {@code content} is read twice: once to hash it and once more if it has to be written.
+     */
+    public StoredFile store(InputStreamSource content, String originalFilename, String contentType, String ownerId)
+            throws IOException {
+        long[] size = new long[1];
+        String hash = sha256(content, size);
+        String objectName = hash + extension(originalFilename);
+
+        StoredFile stored = reference(hash, objectName, contentType, size[0], ownerId);
+        if (stored.getStatus() == StoredFile.Status.STORED) {
+            log.info("Upload of {} matched stored content {}, skipped write", originalFilename, stored.getObjectName());
+            return stored;
+        }
+
+        // New content or a concurrent first upload still writing: writing the same bytes to
+        // the same name is safe in both cases
+        try (InputStream input = content.getInputStream()) {
+            storageBackend.write(stored.getObjectName(), input, stored.getContentType());
+        } catch (IOException | RuntimeException ex) {
+            // Without this the entry would stay referenced, and out of the collector's reach, forever
+            dropReference("_id", hash, ownerId);
+            throw ex;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(hash)),
+            new Update().set("status", StoredFile.Status.STORED), StoredFile.class);
+        stored.setStatus(StoredFile.Status.STORED);
+        return stored;
+    }
+
+    /**
+     * Upserts the index entry with one more reference for the owner. An entry the collector
+     * has claimed is never revived, since its objects may be deleted at any moment: the
+     * filter skips it and the upsert hits the duplicate _id. The upload then fails with
+     * {@link ContentBusyException} instead of waiting on the request thread; the entry is
+     * gone within one collector batch and a retry inserts a fresh one.
+     */
+    private StoredFile reference(String hash, String objectName, String contentType, long size, String ownerId)
+            throws ContentBusyException {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+            .setOnInsert("objectName", objectName)
+            .setOnInsert("contentType", contentType)
+            .setOnInsert("size", size)
+            .setOnInsert("status", StoredFile.Status.PENDING)
+            .setOnInsert("createdAt", now)
+            .inc("refCount", 1)
+            .inc("refs." + ownerId, 1)
+            .set("lastReferencedAt", now)
+            .unset("releasedAt");
+        try {
+            return mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(hash).and("status").ne(StoredFile.Status.DELETING)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), StoredFile.class);
+        } catch (DuplicateKeyException ex) {
+            throw new ContentBusyException("Content " + objectName + " is being removed, retry the upload", ex);
+        }
+    }
+
+    /**
+     * @return the content type recorded for a stored object; empty for objects uploaded
+     * before the content index existed
+     */
+    public Optional<String> findContentType(String objectName) {
+        Query query = new Query(Criteria.where("objectName").is(objectName));
+        query.fields().include("contentType");
+        return Optional.ofNullable(mongoTemplate.findOne(query, StoredFile.class)).map(StoredFile::getContentType);
+    }
+
+    public enum ReleaseResult {
+        RELEASED,
+        NOT_FOUND,
+        FORBIDDEN
+    }
+
+    /**
+     * Releases one of the references the user added. The decrement is guarded on the user's
+     * own count, so repeated calls cannot release references held by other uploaders.
+     */
+    public ReleaseResult release(String objectName, String userId) {
+        Query query = new Query(Criteria.where("objectName").is(objectName));
+        query.fields().include("refs");
+        StoredFile stored = mongoTemplate.findOne(query, StoredFile.class);
+        if (stored == null) {
+            return ReleaseResult.NOT_FOUND;
+        }
+        if (stored.getRefs().getOrDefault(userId, 0L) <= 0) {
+            return ReleaseResult.FORBIDDEN;
+        }
+
+        if (!dropReference("objectName", objectName, userId)) {
+            // A concurrent release took the user's last reference
+            return ReleaseResult.NOT_FOUND;
+        }
+        return ReleaseResult.RELEASED;
+    }
+
+    /**
+     * Takes one reference away from the owner, guarded on the owner's own count.
+     *
+     * @return {@code false} when the owner held no reference on the entry
+     */
+    private boolean dropReference(String key, String value, String ownerId) {
+        String ownerRefs = "refs." + ownerId;
+        StoredFile released = mongoTemplate.findAndModify(
+            new Query(Criteria.where(key).is(value).and(ownerRefs).gt(0)),
+            new Update().inc(ownerRefs, -1).inc("refCount", -1).set("releasedAt", LocalDateTime.now()),
+            FindAndModifyOptions.options().returnNew(true), StoredFile.class);
+        if (released == null) {
+            return false;
+        }
+        // Only while still zero, so a concurrent upload by the same user keeps its reference
+        mongoTemplate.updateFirst(new Query(Criteria.where(key).is(value).and(ownerRefs).is(0)),
+            new Update().unset(ownerRefs), StoredFile.class);
+        return true;
+    }
+
+    /**
+     * Deletes objects unreferenced for longer than the grace period, in batches. Each entry
+     * is claimed with a conditional update first; uploads of claimed content are refused
+     * until the entry is gone, see {@link #store}, so nothing can be written to a name
+     * between the claim and the delete. An entry left claimed by a crashed run still matches the
+     * candidate query and is finished by the next run.
+     */
+    @Scheduled(fixedDelayString = "${storage.gc.interval-ms:900000}", initialDelayString = "${storage.gc.interval-ms:900000}")
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gcGracePeriod);
+        long collected = 0;
+
+        while (true) {
+            Query candidates = new Query(Criteria.where("refCount").lte(0).and("releasedAt").lt(cutoff))
+                .limit(GC_BATCH_SIZE);
+            candidates.fields().include("objectName");
+            List<StoredFile> batch = mongoTemplate.find(candidates, StoredFile.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<String> claimed = new ArrayList<>();
+            List<String> objects = new ArrayList<>();
+            for (StoredFile file : batch) {
+                StoredFile claim = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(file.getId()).and("refCount").lte(0)),
+                    new Update().set("status", StoredFile.Status.DELETING),
+                    StoredFile.class);
+                if (claim == null) {
+                    continue;
+                }
+                claimed.add(file.getId());
+                objects.addAll(RenditionService.storedNames(file.getObjectName()));
+            }
+            // Batched where the backend supports it; names that were never written are ignored
+            storageBackend.delete(objects);
+
+            for (StoredFile file : batch) {
+                if (!claimed.contains(file.getId())) {
+                    continue;
+                }
+                long removed = mongoTemplate.remove(new Query(Criteria.where("_id").is(file.getId())
+                    .and("refCount").lte(0).and("status").is(StoredFile.Status.DELETING)), StoredFile.class)
+                    .getDeletedCount();
+                if (removed > 0) {
+                    mongoTemplate.remove(new Query(Criteria.where("_id").is(file.getObjectName())), FileRendition.class);
+                    RenditionService.storedNames(file.getObjectName()).forEach(signedUrlService::evict);
+                    collected++;
+                }
+            }
+
+            if (batch.size() < GC_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        if (collected > 0) {
+            log.info("Garbage-collected {} unreferenced stored files", collected);
+        }
+    }
+
+    /**
+     * The content is being removed by the collector. Retryable: controllers answer 503.
+     */
+    public static class ContentBusyException extends IOException {
+
+        public ContentBusyException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static String sha256(InputStreamSource content, long[] size) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream input = new DigestInputStream(content.getInputStream(), digest)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                size[0] += read;
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Keeps a short alphanumeric extension so stored names still hint at the file type
+    private static String extension(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,8}") ? "." + extension : "";
+    }
+}
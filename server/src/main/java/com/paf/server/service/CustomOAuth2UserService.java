@@ -1,5 +1,11 @@
 package com.paf.server.service;
 
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -7,18 +13,21 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
 import com.paf.server.model.User;
-import com.paf.server.repository.UserRepository;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
     
-    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
     
-    public CustomOAuth2UserService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomOAuth2UserService(MongoTemplate mongoTemplate,
+                                   EntityCacheService entityCacheService) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
     }
     
     @Override
@@ -30,16 +39,54 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         String name = (String) attributes.get("name");
         String picture = (String) attributes.get("picture");
         
-        User user = userRepository.findByEmail(email)
-            .orElseGet(() -> {
-                User newUser = new User();
-                newUser.setEmail(email);
-                newUser.setName(name);
-                newUser.setProfilePicture(picture);
-                newUser.setRoles(Collections.singletonList("ROLE_USER"));
-                return userRepository.save(newUser);
-            });
+        if (email != null) {
+            upsertUser(email, name, picture);
+        }
         
         return oAuth2User;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates or refreshes the user for this login in a single findAndModify, keyed on the
+     * unique email index. The provider's name and picture are remembered in providerName /
+     * providerPicture and only copied onto name / profilePicture when the provider value
+     * changes, so edits made through the profile API survive later logins. Concurrent first
+     * logins converge on one document because the server retries upserts that hit the
+     * unique key.
+     */
+    private void upsertUser(String email, String name, String picture) {
+        Query query = new Query(Criteria.where("email").is(email));
+        Document set = new Document()
+            .append("roles", new Document("$ifNull", List.of("$roles", List.of("ROLE_USER"))))
+            .append("version", new Document("$ifNull", List.of("$version", 0L)));
+        if (name != null) {
+            copyWhenChanged(set, "name", "providerName", name);
+        }
+        if (picture != null) {
+            copyWhenChanged(set, "profilePicture", "providerPicture", picture);
+        }
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+
+        User previous = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true), User.class);
+        if (previous != null) {
+            entityCacheService.evictUser(previous.getId());
+        }
+    }
+
+    // Copies when the field is unset, or when a previously recorded provider value changed;
+    // users from before providerName was tracked keep whatever they have
+    private static void copyWhenChanged(Document set, String field, String providerField, String value) {
+        Document literal = new Document("$literal", value);
+        Document copy = new Document("$or", List.of(
+            missing(field),
+            new Document("$and", List.of(
+                new Document("$not", List.of(missing(providerField))),
+                new Document("$ne", List.of("$" + providerField, literal))))));
+        set.append(field, new Document("$cond", List.of(copy, literal, "$" + field)));
+        set.append(providerField, literal);
+    }
+
+    private static Document missing(String field) {
+        return new Document("$eq", List.of(new Document("$type", "$" + field), "missing"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.paf.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Evicts cached users and communities when their documents change on any node, using
+ * MongoDB change streams. Only active with {@code entity-cache.change-streams=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "entity-cache", name = "change-streams", havingValue = "true")
+public class EntityCacheInvalidationListener implements SmartLifecycle {
+
+    private final MessageListenerContainer container;
+    private final EntityCacheService entityCacheService;
+
+    public EntityCacheInvalidationListener(MongoTemplate mongoTemplate, EntityCacheService entityCacheService) {
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+        this.entityCacheService = entityCacheService;
+    }
+
+    @Override
+    public void start() {
+        register("users", entityCacheService::evictUser);
+        register("communities", entityCacheService::evictCommunity);
+        container.start();
+        log.info("Listening to change streams for cache invalidation");
+    }
+
+    private void register(String collection, Consumer<String> evict) {
+        MessageListener<ChangeStreamDocument<Document>, Document> listener = message -> {
+            BsonDocument documentKey = message.getRaw().getDocumentKey();
+            BsonValue id = documentKey == null ? null : documentKey.get("_id");
+            if (id != null) {
+                evict.accept(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+            }
+        };
+        container.register(ChangeStreamRequest.builder(listener).collection(collection).build(), Document.class);
+    }
+
+    @Override
+    public void stop() {
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container.isRunning();
+    }
+}
@@ -0,0 +1,104 @@
+package com.paf.server.service;
+
+import com.paf.server.config.CacheConfig;
+import com.paf.server.model.Community;
+import com.paf.server.model.User;
+import com.paf.server.repository.CommunityRepository;
+import com.paf.server.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-through lookups for users and communities. Which repositories are actually cached is
+ * decided by {@link CacheConfig}; for the others every call goes to Mongo.
+ *
+ * <p>Returned documents may be shared with other requests, so callers must treat them as
+ * read-only and write through the repositories or MongoTemplate, then evict.
+ */
+@Service
+public class EntityCacheService {
+
+    private final UserRepository userRepository;
+    private final CommunityRepository communityRepository;
+    private final Cache users;
+    private final Cache userIdsByEmail;
+    private final Cache userSummaries;
+    private final Cache communities;
+
+    public EntityCacheService(UserRepository userRepository,
+                              CommunityRepository communityRepository,
+                              CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.communityRepository = communityRepository;
+        this.users = cacheManager.getCache(CacheConfig.USERS);
+        this.userIdsByEmail = cacheManager.getCache(CacheConfig.USER_IDS_BY_EMAIL);
+        this.userSummaries = cacheManager.getCache(CacheConfig.USER_SUMMARIES);
+        this.communities = cacheManager.getCache(CacheConfig.COMMUNITIES);
+    }
+
+    public Optional<User> findUser(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return readThrough(users, userId, () -> userRepository.findById(userId));
+    }
+
+    // Email to id is effectively immutable, so only the id mapping is cached per email
+    public Optional<User> findUserByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        Cache.ValueWrapper cachedId = userIdsByEmail.get(email);
+        if (cachedId != null) {
+            Optional<User> user = findUser((String) cachedId.get());
+            if (user.isPresent() && email.equals(user.get().getEmail())) {
+                return user;
+            }
+            userIdsByEmail.evict(email);
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(found -> {
+            userIdsByEmail.put(email, found.getId());
+            users.put(found.getId(), found);
+        });
+        return user;
+    }
+
+    public Optional<Community> findCommunity(String communityId) {
+        if (communityId == null) {
+            return Optional.empty();
+        }
+        return readThrough(communities, communityId, () -> communityRepository.findById(communityId));
+    }
+
+    // Also drops the user's summary, so every user write has a single place to evict
+    public void evictUser(String userId) {
+        if (userId != null) {
+            users.evict(userId);
+            userSummaries.evict(userId);
+        }
+    }
+
+    public void evictCommunity(String communityId) {
+        if (communityId != null) {
+            communities.evict(communityId);
+        }
+    }
+
+    // Misses are not cached, so a document created after a failed lookup is seen immediately
+    @SuppressWarnings("unchecked")
+    private static <T> Optional<T> readThrough(Cache cache, String key, Supplier<Optional<T>> loader) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return Optional.ofNullable((T) cached.get());
+        }
+        Optional<T> loaded = loader.get();
+        loaded.ifPresent(value -> cache.put(key, value));
+        return loaded;
+    }
+}
@@ -0,0 +1,128 @@
+package com.paf.server.service;
+
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.FollowEdge;
+import com.paf.server.model.Notification;
+import com.paf.server.model.User;
+import com.paf.server.repository.FollowEdgeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+public class FollowService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final FollowEdgeRepository followEdgeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationService notificationService;
+    private final EntityCacheService entityCacheService;
+
+    public FollowService(FollowEdgeRepository followEdgeRepository,
+                         MongoTemplate mongoTemplate,
+                         NotificationService notificationService,
+                         EntityCacheService entityCacheService) {
+        this.entityCacheService = entityCacheService;
+        this.followEdgeRepository = followEdgeRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * @return {@code false} when the follower already follows the followee
+     */
+    public boolean follow(User follower, String followeeId) {
+        if (follower.getId().equals(followeeId)) {
+            throw new IllegalArgumentException("Users cannot follow themselves");
+        }
+
+        FollowEdge edge = new FollowEdge();
+        edge.setFollowerId(follower.getId());
+        edge.setFolloweeId(followeeId);
+        edge.setCreatedAt(LocalDateTime.now());
+        try {
+            followEdgeRepository.insert(edge);
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+
+        adjustCounts(follower.getId(), followeeId, 1);
+        notificationService.createNotification(followeeId, follower.getId(),
+            Notification.NotificationType.NEW_FOLLOWER,
+            follower.getName() + " started following you", follower.getId());
+        log.debug("User {} now follows {}", follower.getId(), followeeId);
+        return true;
+    }
+
+    /**
+     * @return {@code false} when there was no follow relationship to remove
+     */
+    public boolean unfollow(String followerId, String followeeId) {
+        if (followEdgeRepository.deleteByFollowerIdAndFolloweeId(followerId, followeeId) == 0) {
+            return false;
+        }
+        adjustCounts(followerId, followeeId, -1);
+        return true;
+    }
+
+    public boolean isFollowing(String followerId, String followeeId) {
+        return followEdgeRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
+
+    public CursorPage<String> getFollowers(String userId, String cursor, int limit) {
+        return page("followeeId", userId, "followerId", cursor, limit);
+    }
+
+    public CursorPage<String> getFollowing(String userId, String cursor, int limit) {
+        return page("followerId", userId, "followeeId", cursor, limit);
+    }
+
+    // Walks one direction of the graph newest first; the cursor is the last edge id seen
+    private CursorPage<String> page(String ownerField, String userId, String otherField, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where(ownerField).is(userId);
+        if (cursor != null && !cursor.isBlank()) {
+            if (!ObjectId.isValid(cursor)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            criteria = criteria.and("_id").lt(new ObjectId(cursor));
+        }
+
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "_id"))
+            .limit(pageSize + 1);
+        query.fields().include(otherField);
+
+        List<FollowEdge> edges = mongoTemplate.find(query, FollowEdge.class);
+        String nextCursor = null;
+        if (edges.size() > pageSize) {
+            edges = edges.subList(0, pageSize);
+            nextCursor = edges.get(pageSize - 1).getId();
+        }
+
+        List<String> userIds = edges.stream()
+            .map(edge -> "followerId".equals(otherField) ? edge.getFollowerId() : edge.getFolloweeId())
+            .toList();
+        return new CursorPage<>(userIds, nextCursor);
+    }
+
+    private void adjustCounts(String followerId, String followeeId, int delta) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(followerId)),
+            new Update().inc("followingCount", delta), User.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(followeeId)),
+            new Update().inc("followerCount", delta), User.class);
+        entityCacheService.evictUser(followerId);
+        entityCacheService.evictUser(followeeId);
+    }
+}
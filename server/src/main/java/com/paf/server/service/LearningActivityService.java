@@ -0,0 +1,126 @@
+package com.paf.server.service;
+
+import com.paf.server.model.LearningActivity;
+import com.paf.server.model.LearningStreak;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Topic completion history in monthly buckets. Writes are a single upserted $inc on the
+ * day's counter; heatmaps read one document per month in range and streaks walk months
+ * backwards from today, stopping at the first gap.
+ */
+@Service
+public class LearningActivityService {
+
+    private static final int MAX_HEATMAP_DAYS = 731;
+    private static final int STREAK_BATCH_MONTHS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    public LearningActivityService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public static String bucketId(String userId, YearMonth month) {
+        return userId + "|" + month;
+    }
+
+    public void recordCompletions(String userId, LocalDate day, int count) {
+        if (count <= 0) {
+            return;
+        }
+        YearMonth month = YearMonth.from(day);
+        Update update = new Update()
+            .setOnInsert("userId", userId)
+            .setOnInsert("month", month.toString())
+            .inc("days." + day.getDayOfMonth(), count)
+            .inc("total", count);
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(bucketId(userId, month))), update, LearningActivity.class);
+    }
+
+    /**
+     * Completions per day between {@code from} and {@code to} inclusive; days without
+     * activity are omitted.
+     */
+    public Map<LocalDate, Integer> getHeatmap(String userId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_HEATMAP_DAYS) {
+            throw new IllegalArgumentException("A heatmap can span at most " + MAX_HEATMAP_DAYS + " days");
+        }
+
+        Query query = new Query(Criteria.where("userId").is(userId)
+            .and("month").gte(YearMonth.from(from).toString()).lte(YearMonth.from(to).toString()));
+        query.fields().include("month", "days");
+
+        Map<LocalDate, Integer> heatmap = new TreeMap<>();
+        for (LearningActivity bucket : mongoTemplate.find(query, LearningActivity.class)) {
+            YearMonth month = YearMonth.parse(bucket.getMonth());
+            bucket.getDays().forEach((day, count) -> {
+                LocalDate date = month.atDay(Integer.parseInt(day));
+                if (count > 0 && !date.isBefore(from) && !date.isAfter(to)) {
+                    heatmap.put(date, count);
+                }
+            });
+        }
+        return heatmap;
+    }
+
+    public LearningStreak getStreak(String userId, LocalDate today) {
+        LocalDate expected = today;
+        LocalDate lastActive = null;
+        int streak = 0;
+        YearMonth cursor = YearMonth.from(today);
+
+        while (true) {
+            // A few months per round trip; most streaks end inside the first batch
+            Query query = new Query(Criteria.where("userId").is(userId).and("month").lte(cursor.toString()))
+                .with(Sort.by(Sort.Direction.DESC, "month"))
+                .limit(STREAK_BATCH_MONTHS);
+            query.fields().include("month", "days");
+            List<LearningActivity> buckets = mongoTemplate.find(query, LearningActivity.class);
+            if (buckets.isEmpty()) {
+                return new LearningStreak(streak, lastActive);
+            }
+
+            for (LearningActivity bucket : buckets) {
+                YearMonth month = YearMonth.parse(bucket.getMonth());
+                if (streak == 0 && expected.equals(today) && !month.equals(YearMonth.from(today))) {
+                    // Nothing yet this month; a streak can still end yesterday
+                    expected = today.minusDays(1);
+                }
+                if (!month.equals(YearMonth.from(expected))) {
+                    // A whole month is missing between the streak and this bucket
+                    return new LearningStreak(streak, lastActive);
+                }
+                for (int day = expected.getDayOfMonth(); day >= 1; day--) {
+                    Integer count = bucket.getDays().get(String.valueOf(day));
+                    if (count != null && count > 0) {
+                        if (lastActive == null) {
+                            lastActive = expected;
+                        }
+                        streak++;
+                    } else if (!(streak == 0 && expected.equals(today))) {
+                        // Today may simply not have started yet; any other gap ends the streak
+                        return new LearningStreak(streak, lastActive);
+                    }
+                    expected = expected.minusDays(1);
+                }
+                cursor = month.minusMonths(1);
+            }
+        }
+    }
+}
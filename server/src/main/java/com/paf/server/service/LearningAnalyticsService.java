@@ -0,0 +1,212 @@
+package com.paf.server.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.paf.server.event.LearningPlanChangedEvent;
+import com.paf.server.event.LearningPlanChangedEvent.PlanStats;
+import com.paf.server.model.LearningCategoryStats;
+import com.paf.server.model.LearningRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Completion analytics per skill category, for each user and platform-wide.
+ *
+ * <p>Every learning plan write moves the affected rollups with an upserted $inc, so reads
+ * are primary-key lookups. A scheduled aggregation over learning_plans rewrites all rollups
+ * to correct any drift, for example from events lost in a restart.
+ */
+@Slf4j
+@Service
+public class LearningAnalyticsService {
+
+    public static final String GLOBAL_SCOPE = "global";
+    private static final String UNCATEGORIZED = "uncategorized";
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public LearningAnalyticsService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public static String userScope(String userId) {
+        return "user:" + userId;
+    }
+
+    public List<LearningCategoryStats> getCategoryStats(String scope) {
+        Query query = new Query(Criteria.where("scope").is(scope)).with(Sort.by("skillCategory"));
+        return mongoTemplate.find(query, LearningRollup.class).stream()
+            .map(LearningCategoryStats::of)
+            .toList();
+    }
+
+    public Optional<LearningCategoryStats> getCategoryStats(String scope, String skillCategory) {
+        return Optional.ofNullable(mongoTemplate.findById(rollupId(scope, category(skillCategory)), LearningRollup.class))
+            .map(LearningCategoryStats::of);
+    }
+
+    @Async("analyticsExecutor")
+    @EventListener
+    public void onPlanChanged(LearningPlanChangedEvent event) {
+        Map<String, Delta> deltas = new HashMap<>();
+        if (event.before() != null) {
+            deltas.computeIfAbsent(category(event.before().skillCategory()), key -> new Delta()).add(event.before(), -1);
+        }
+        if (event.after() != null) {
+            deltas.computeIfAbsent(category(event.after().skillCategory()), key -> new Delta()).add(event.after(), 1);
+        }
+
+        deltas.forEach((category, delta) -> {
+            if (delta.isEmpty()) {
+                return;
+            }
+            apply(GLOBAL_SCOPE, category, delta);
+            apply(userScope(event.userId()), category, delta);
+        });
+    }
+
+    private void apply(String scope, String category, Delta delta) {
+        Update update = new Update()
+            .setOnInsert("scope", scope)
+            .setOnInsert("skillCategory", category)
+            .inc("planCount", delta.plans)
+            .inc("completedPlans", delta.completed)
+            .inc("progressSum", delta.progress)
+            .inc("completionMillisSum", delta.completionMillis)
+            .set("updatedAt", LocalDateTime.now());
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(rollupId(scope, category))), update, LearningRollup.class);
+    }
+
+    /**
+     * Recomputes every rollup from learning_plans in one aggregation and removes rollups
+     * whose plans are all gone. Rollups moved by events during the run keep their newer
+     * updatedAt and survive the cleanup.
+     */
+    @Scheduled(cron = "${analytics.learning.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        Date startedAt = new Date();
+        MongoCollection<Document> rollups = mongoTemplate.getCollection("learning_rollups");
+
+        Document completed = new Document("$ifNull", List.of("$completedAt", false));
+        List<Document> pipeline = List.of(
+            new Document("$project", new Document("userId", 1)
+                .append("category", new Document("$ifNull", List.of("$skillCategory", UNCATEGORIZED)))
+                .append("progress", new Document("$ifNull", List.of("$progress", 0)))
+                .append("completed", new Document("$cond", List.of(completed, 1, 0)))
+                .append("completionMillis", new Document("$cond", List.of(
+                    new Document("$and", List.of(completed, new Document("$ifNull", List.of("$createdAt", false)))),
+                    new Document("$subtract", List.of("$completedAt", "$createdAt")),
+                    0)))),
+            new Document("$group", new Document("_id", new Document("userId", "$userId").append("category", "$category"))
+                .append("planCount", new Document("$sum", 1))
+                .append("completedPlans", new Document("$sum", "$completed"))
+                .append("progressSum", new Document("$sum", "$progress"))
+                .append("completionMillisSum", new Document("$sum", "$completionMillis"))));
+
+        Map<String, long[]> global = new HashMap<>();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        long groups = 0;
+        for (Document group : mongoTemplate.getCollection("learning_plans").aggregate(pipeline)
+                .allowDiskUse(true)
+                .batchSize(BATCH_SIZE)) {
+            Document key = group.get("_id", Document.class);
+            String category = key.getString("category");
+            long[] totals = {
+                number(group, "planCount"), number(group, "completedPlans"),
+                number(group, "progressSum"), number(group, "completionMillisSum")};
+
+            writes.add(rollupWrite(userScope(key.getString("userId")), category, totals, startedAt));
+            long[] categoryTotals = global.computeIfAbsent(category, c -> new long[4]);
+            for (int i = 0; i < totals.length; i++) {
+                categoryTotals[i] += totals[i];
+            }
+            groups++;
+
+            if (writes.size() >= BATCH_SIZE) {
+                rollups.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+                writes.clear();
+            }
+        }
+        global.forEach((category, totals) -> writes.add(rollupWrite(GLOBAL_SCOPE, category, totals, startedAt)));
+        if (!writes.isEmpty()) {
+            rollups.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        }
+
+        long removed = rollups.deleteMany(Filters.lt("updatedAt", startedAt)).getDeletedCount();
+        log.info("Rebuilt learning rollups: {} user/category groups, {} categories, {} stale removed in {} ms",
+            groups, global.size(), removed, Duration.between(startedAt.toInstant(), new Date().toInstant()).toMillis());
+    }
+
+    private static WriteModel<Document> rollupWrite(String scope, String category, long[] totals, Date updatedAt) {
+        return new UpdateOneModel<>(Filters.eq("_id", rollupId(scope, category)),
+            Updates.combine(
+                Updates.set("scope", scope),
+                Updates.set("skillCategory", category),
+                Updates.set("planCount", totals[0]),
+                Updates.set("completedPlans", totals[1]),
+                Updates.set("progressSum", totals[2]),
+                Updates.set("completionMillisSum", totals[3]),
+                Updates.set("updatedAt", updatedAt)),
+            new UpdateOptions().upsert(true));
+    }
+
+    private static long number(Document document, String field) {
+        Number value = document.get(field, Number.class);
+        return value == null ? 0 : value.longValue();
+    }
+
+    private static String rollupId(String scope, String category) {
+        return scope + "|" + category;
+    }
+
+    private static String category(String skillCategory) {
+        return skillCategory == null || skillCategory.isBlank() ? UNCATEGORIZED : skillCategory;
+    }
+
+    // Net change one plan write makes to a single category's totals
+    private static final class Delta {
+        private long plans;
+        private long completed;
+        private long progress;
+        private long completionMillis;
+
+        void add(PlanStats stats, int sign) {
+            plans += sign;
+            progress += (long) sign * stats.progress();
+            if (stats.completedAt() != null) {
+                completed += sign;
+                if (stats.createdAt() != null) {
+                    completionMillis += sign * Duration.between(stats.createdAt(), stats.completedAt()).toMillis();
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return plans == 0 && completed == 0 && progress == 0 && completionMillis == 0;
+        }
+    }
+}
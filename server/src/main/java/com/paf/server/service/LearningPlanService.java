@@ -1,30 +1,70 @@
 package com.paf.server.service;
 
+import com.paf.server.event.LearningPlanChangedEvent;
+import com.paf.server.event.LearningPlanChangedEvent.PlanStats;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.PageCursor;
 import com.paf.server.model.LearningPlan;
+import com.paf.server.model.LearningPlanSummary;
+import com.paf.server.model.TopicBulkRequest;
 import com.paf.server.model.User;
 import com.paf.server.repository.LearningPlanRepository;
-import com.paf.server.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
 @Service
 public class LearningPlanService {
 
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final LearningPlanRepository learningPlanRepository;
-    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LearningActivityService learningActivityService;
+    private final int maxTopics;
 
     @Autowired
     public LearningPlanService(LearningPlanRepository learningPlanRepository,
-            UserRepository userRepository) {
+            MongoTemplate mongoTemplate,
+            EntityCacheService entityCacheService,
+            ApplicationEventPublisher eventPublisher,
+            LearningActivityService learningActivityService,
+            @Value("${learning-plans.max-topics:5000}") int maxTopics) {
         this.learningPlanRepository = learningPlanRepository;
-        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+        this.eventPublisher = eventPublisher;
+        this.learningActivityService = learningActivityService;
+        this.maxTopics = maxTopics;
+    }
+
+    public int getMaxTopics() {
+        return maxTopics;
     }
 
     public List<LearningPlan> getUserPlans(String userId) {
@@ -33,17 +73,62 @@ public class LearningPlanService {
         return learningPlanRepository.findByUserId(userId);
     }
 
+    /**
+     * A page of the user's plans, most recently updated first, read from the user_recent
+     * index without loading any topics. An unknown user simply has no plans.
+     */
+    public CursorPage<LearningPlanSummary> getPlanSummaries(String userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, after(cursor));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(pageSize + 1);
+
+        List<LearningPlanSummary> plans = mongoTemplate.query(LearningPlan.class)
+                .as(LearningPlanSummary.class)
+                .matching(query)
+                .all();
+
+        String nextCursor = null;
+        if (plans.size() > pageSize) {
+            plans = plans.subList(0, pageSize);
+            LearningPlanSummary last = plans.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.updatedAt(), last.id());
+        }
+        return new CursorPage<>(plans, nextCursor);
+    }
+
+    public Optional<LearningPlan> findPlan(String planId) {
+        return learningPlanRepository.findById(planId);
+    }
+
     public LearningPlan createPlan(LearningPlan plan, String userEmail) {
         log.debug("Creating new learning plan for user with email: {}", userEmail);
         User user = validateUserByEmail(userEmail);
 
+        // Server-owned fields are never taken from the request: a client-supplied version
+        // would turn the insert into a versioned update, and the counters are derived below
         plan.setId(UUID.randomUUID().toString());
+        plan.setVersion(null);
+        plan.setCompletedAt(null);
         plan.setUserId(user.getId());
         plan.setCreatedAt(LocalDateTime.now());
         plan.setUpdatedAt(LocalDateTime.now());
+        if (plan.getTopics() != null) {
+            if (plan.getTopics().size() > maxTopics) {
+                throw new IllegalArgumentException("A plan can hold at most " + maxTopics + " topics");
+            }
+            plan.getTopics().stream().filter(topic -> topic.getId() == null)
+                    .forEach(topic -> topic.setId(UUID.randomUUID().toString()));
+        }
         updatePlanProgress(plan);
 
-        LearningPlan savedPlan = learningPlanRepository.save(plan);
+        LearningPlan savedPlan = learningPlanRepository.insert(plan);
+        eventPublisher.publishEvent(LearningPlanChangedEvent.created(savedPlan));
         log.info("Created new learning plan with ID: {}", savedPlan.getId());
         return savedPlan;
     }
@@ -54,7 +139,7 @@ public class LearningPlanService {
         if (userId == null || userId.isBlank()) {
             throw new IllegalArgumentException("User ID cannot be null or empty");
         }
-        Optional<User> userOptional = userRepository.findById(userId);
+        Optional<User> userOptional = entityCacheService.findUser(userId);
         return userOptional.orElseThrow(() -> new RuntimeException("User with ID " + userId + " not found"));
     }
 
@@ -63,7 +148,7 @@ public class LearningPlanService {
         if (userEmail == null || userEmail.isBlank()) {
             throw new IllegalArgumentException("User email cannot be null or empty");
         }
-        Optional<User> userOptional = userRepository.findByEmail(userEmail);
+        Optional<User> userOptional = entityCacheService.findUserByEmail(userEmail);
         return userOptional.orElseThrow(() -> new RuntimeException("User with email " + userEmail + " not found"));
     }
 
@@ -71,6 +156,7 @@ public class LearningPlanService {
         log.debug("Updating learning plan: {} for user with email: {}", planId, userEmail);
         User user = validateUserByEmail(userEmail);
         LearningPlan existingPlan = getPlanAndValidateOwnership(planId, user.getId());
+        PlanStats before = PlanStats.of(existingPlan);
 
         // Update fields if they are provided
         if (planUpdates.getTitle() != null) {
@@ -90,6 +176,7 @@ public class LearningPlanService {
         existingPlan.setUpdatedAt(LocalDateTime.now());
 
         LearningPlan updatedPlan = learningPlanRepository.save(existingPlan);
+        eventPublisher.publishEvent(LearningPlanChangedEvent.updated(before, updatedPlan));
         log.info("Updated learning plan with ID: {}", planId);
         return updatedPlan;
     }
@@ -99,64 +186,290 @@ public class LearningPlanService {
         User user = validateUserByEmail(userEmail);
         LearningPlan plan = getPlanAndValidateOwnership(planId, user.getId());
         learningPlanRepository.deleteById(planId);
+        eventPublisher.publishEvent(LearningPlanChangedEvent.deleted(plan));
         log.info("Deleted learning plan with ID: {}", planId);
     }
 
     public LearningPlan addTopic(String planId, LearningPlan.PlanTopic topic, String userEmail) {
+        return addTopic(planId, topic, userEmail, null);
+    }
+
+    public LearningPlan addTopic(String planId, LearningPlan.PlanTopic topic, String userEmail, Long expectedVersion) {
         log.debug("Adding topic to learning plan: {} for user with email: {}", planId, userEmail);
         User user = validateUserByEmail(userEmail);
-        LearningPlan plan = getPlanAndValidateOwnership(planId, user.getId());
 
         topic.setId(UUID.randomUUID().toString());
         topic.setCompleted(false);
-        topic.setCompletedAt(LocalDateTime.now());
+        topic.setCompletedAt(null);
 
-        plan.getTopics().add(topic);
-        updatePlanProgress(plan);
-        plan.setUpdatedAt(LocalDateTime.now());
+        for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+            LearningPlan counters = getPlanCounters(planId, user.getId(), expectedVersion);
 
-        LearningPlan updatedPlan = learningPlanRepository.save(plan);
-        log.info("Added new topic to plan ID: {}", planId);
-        return updatedPlan;
+            Update update = new Update()
+                    .push("topics", topic)
+                    .inc("totalTopics", 1)
+                    .set("progress", progressOf(counters.getCompletedTopics(), counters.getTotalTopics() + 1))
+                    .unset("completedAt")
+                    .set("updatedAt", LocalDateTime.now())
+                    .inc("version", 1);
+            LearningPlan updatedPlan = mongoTemplate.findAndModify(
+                    versionedPlanQuery(planId, user.getId(), counters.getVersion()), update,
+                    FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+            if (updatedPlan != null) {
+                eventPublisher.publishEvent(LearningPlanChangedEvent.updated(PlanStats.of(counters), updatedPlan));
+                log.info("Added new topic to plan ID: {}", planId);
+                return updatedPlan;
+            }
+            retryOrFail(planId, expectedVersion, attempt);
+        }
+        throw new OptimisticLockingFailureException("Learning plan " + planId + " is being modified concurrently");
     }
 
     public LearningPlan markTopicComplete(String planId, String topicId, String userEmail) {
+        return markTopicComplete(planId, topicId, userEmail, null);
+    }
+
+    /**
+     * Completes one topic with a positional $set and moves the counters with $inc, guarded
+     * by the plan version. Completing an already completed topic is a no-op.
+     */
+    public LearningPlan markTopicComplete(String planId, String topicId, String userEmail, Long expectedVersion) {
         log.debug("Marking topic {} complete in plan: {} for user with email: {}", topicId, planId, userEmail);
         User user = validateUserByEmail(userEmail);
-        LearningPlan plan = getPlanAndValidateOwnership(planId, user.getId());
 
-        plan.getTopics().stream()
-                .filter(t -> t.getId().equals(topicId))
-                .findFirst()
-                .ifPresentOrElse(
-                        topic -> {
-                            topic.setCompleted(true);
-                            topic.setCompletedAt(LocalDateTime.now());
-                        },
-                        () -> {
-                            throw new RuntimeException("Topic with ID " + topicId + " not found in plan");
-                        });
+        for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+            LearningPlan counters = getPlanCounters(planId, user.getId(), expectedVersion);
 
-        updatePlanProgress(plan);
-        plan.setUpdatedAt(LocalDateTime.now());
+            Query query = versionedPlanQuery(planId, user.getId(), counters.getVersion())
+                    .addCriteria(Criteria.where("topics").elemMatch(
+                            Criteria.where("id").is(topicId).and("completed").ne(true)));
+            LocalDateTime now = LocalDateTime.now();
+            int progress = progressOf(counters.getCompletedTopics() + 1, counters.getTotalTopics());
+            Update update = new Update()
+                    .set("topics.$.completed", true)
+                    .set("topics.$.completedAt", now)
+                    .inc("completedTopics", 1)
+                    .set("progress", progress)
+                    .set("updatedAt", now)
+                    .inc("version", 1);
+            if (progress == 100) {
+                update.set("completedAt", now);
+            }
+            LearningPlan updatedPlan = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+            if (updatedPlan != null) {
+                eventPublisher.publishEvent(LearningPlanChangedEvent.updated(PlanStats.of(counters), updatedPlan));
+                learningActivityService.recordCompletions(user.getId(), now.toLocalDate(), 1);
+                log.info("Marked topic {} complete in plan ID: {}", topicId, planId);
+                return updatedPlan;
+            }
 
-        LearningPlan updatedPlan = learningPlanRepository.save(plan);
-        log.info("Marked topic {} complete in plan ID: {}", topicId, planId);
-        return updatedPlan;
+            // Nothing matched: the topic is missing, already completed, or the version moved on
+            LearningPlan current = getPlanCounters(planId, user.getId(), null);
+            if (Objects.equals(current.getVersion(), counters.getVersion())) {
+                boolean topicExists = mongoTemplate.exists(new Query(Criteria.where("_id").is(planId)
+                        .and("topics.id").is(topicId)), LearningPlan.class);
+                if (!topicExists) {
+                    throw new RuntimeException("Topic with ID " + topicId + " not found in plan");
+                }
+                return learningPlanRepository.findById(planId)
+                        .orElseThrow(() -> new RuntimeException("Learning plan with ID " + planId + " not found"));
+            }
+            retryOrFail(planId, expectedVersion, attempt);
+        }
+        throw new OptimisticLockingFailureException("Learning plan " + planId + " is being modified concurrently");
+    }
+
+    /**
+     * Applies a batch of topic changes and writes the result with one versioned update, so
+     * ownership is checked once and the counters and progress are computed once per batch.
+     */
+    public LearningPlan applyBulk(String planId, TopicBulkRequest request, String userEmail, Long expectedVersion) {
+        log.debug("Applying bulk topic changes to plan: {} for user with email: {}", planId, userEmail);
+        User user = validateUserByEmail(userEmail);
+
+        for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+            LearningPlan plan = getPlanAndValidateOwnership(planId, user.getId());
+            if (expectedVersion != null && !expectedVersion.equals(plan.getVersion())) {
+                throw new OptimisticLockingFailureException("Learning plan " + planId + " was modified by another request");
+            }
+
+            PlanStats before = PlanStats.of(plan);
+            Set<String> alreadyCompleted = new HashSet<>();
+            if (plan.getTopics() != null) {
+                plan.getTopics().stream().filter(LearningPlan.PlanTopic::isCompleted)
+                        .forEach(topic -> alreadyCompleted.add(topic.getId()));
+            }
+            plan.setTopics(applyTopicChanges(plan.getTopics(), request));
+            updatePlanProgress(plan);
+
+            Update update = new Update()
+                    .set("topics", plan.getTopics())
+                    .set("completedTopics", plan.getCompletedTopics())
+                    .set("totalTopics", plan.getTotalTopics())
+                    .set("progress", plan.getProgress())
+                    .set("completedAt", plan.getCompletedAt())
+                    .set("updatedAt", LocalDateTime.now())
+                    .inc("version", 1);
+            LearningPlan updatedPlan = mongoTemplate.findAndModify(
+                    versionedPlanQuery(planId, user.getId(), plan.getVersion()), update,
+                    FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+            if (updatedPlan != null) {
+                eventPublisher.publishEvent(LearningPlanChangedEvent.updated(before, updatedPlan));
+                int newlyCompleted = (int) request.getComplete().stream().distinct()
+                        .filter(topicId -> !alreadyCompleted.contains(topicId))
+                        .count();
+                learningActivityService.recordCompletions(user.getId(), LocalDate.now(), newlyCompleted);
+                log.info("Applied bulk topic changes to plan ID: {} ({} topics)", planId, updatedPlan.getTotalTopics());
+                return updatedPlan;
+            }
+            retryOrFail(planId, expectedVersion, attempt);
+        }
+        throw new OptimisticLockingFailureException("Learning plan " + planId + " is being modified concurrently");
+    }
+
+    public LearningPlan importTopics(String planId, List<LearningPlan.PlanTopic> topics, String userEmail, Long expectedVersion) {
+        TopicBulkRequest request = new TopicBulkRequest();
+        request.setAdd(topics);
+        return applyBulk(planId, request, userEmail, expectedVersion);
+    }
+
+    // Validates the whole batch before touching anything, so a bad id rejects the request as a unit
+    private List<LearningPlan.PlanTopic> applyTopicChanges(List<LearningPlan.PlanTopic> current, TopicBulkRequest request) {
+        Map<String, LearningPlan.PlanTopic> topics = new LinkedHashMap<>();
+        if (current != null) {
+            for (LearningPlan.PlanTopic topic : current) {
+                // Topics created with the plan before ids were assigned get one now
+                if (topic.getId() == null) {
+                    topic.setId(UUID.randomUUID().toString());
+                }
+                topics.put(topic.getId(), topic);
+            }
+        }
+
+        requireKnownTopics(topics, request.getDelete());
+        requireKnownTopics(topics, request.getComplete());
+        requireKnownTopics(topics, request.getOrder());
+
+        request.getDelete().forEach(topics::remove);
+
+        for (LearningPlan.PlanTopic topic : request.getAdd()) {
+            if (topic.getTitle() == null || topic.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Every added topic needs a title");
+            }
+            topic.setId(UUID.randomUUID().toString());
+            topic.setCompleted(false);
+            topic.setCompletedAt(null);
+            topics.put(topic.getId(), topic);
+        }
+        if (topics.size() > maxTopics) {
+            throw new IllegalArgumentException("A plan can hold at most " + maxTopics + " topics");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (String topicId : request.getComplete()) {
+            LearningPlan.PlanTopic topic = topics.get(topicId);
+            if (topic == null) {
+                throw new IllegalArgumentException("Topic " + topicId + " is deleted in the same request");
+            }
+            if (!topic.isCompleted()) {
+                topic.setCompleted(true);
+                topic.setCompletedAt(now);
+            }
+        }
+
+        List<LearningPlan.PlanTopic> ordered = new ArrayList<>(topics.size());
+        Set<String> placed = new HashSet<>();
+        for (String topicId : request.getOrder()) {
+            LearningPlan.PlanTopic topic = topics.get(topicId);
+            if (topic != null && placed.add(topicId)) {
+                ordered.add(topic);
+            }
+        }
+        topics.values().stream().filter(topic -> !placed.contains(topic.getId())).forEach(ordered::add);
+        return ordered;
+    }
+
+    private static void requireKnownTopics(Map<String, LearningPlan.PlanTopic> topics, List<String> topicIds) {
+        for (String topicId : topicIds) {
+            if (!topics.containsKey(topicId)) {
+                throw new IllegalArgumentException("Topic with ID " + topicId + " not found in plan");
+            }
+        }
     }
 
     private void updatePlanProgress(LearningPlan plan) {
         if (plan.getTopics() == null || plan.getTopics().isEmpty()) {
+            plan.setCompletedTopics(0);
+            plan.setTotalTopics(0);
             plan.setProgress(0);
+            plan.setCompletedAt(null);
             return;
         }
 
-        long completedCount = plan.getTopics().stream()
+        int completedCount = (int) plan.getTopics().stream()
                 .filter(LearningPlan.PlanTopic::isCompleted)
                 .count();
 
-        int progress = (int) ((completedCount * 100) / plan.getTopics().size());
-        plan.setProgress(progress);
+        plan.setCompletedTopics(completedCount);
+        plan.setTotalTopics(plan.getTopics().size());
+        plan.setProgress(progressOf(completedCount, plan.getTopics().size()));
+        if (plan.getProgress() < 100) {
+            plan.setCompletedAt(null);
+        } else if (plan.getCompletedAt() == null) {
+            plan.setCompletedAt(LocalDateTime.now());
+        }
+    }
+
+    private static int progressOf(int completedTopics, int totalTopics) {
+        return totalTopics == 0 ? 0 : (completedTopics * 100) / totalTopics;
+    }
+
+    // Reads only what a targeted update needs: owner, version, the counters and the
+    // fields the analytics rollups are keyed on
+    private LearningPlan getPlanCounters(String planId, String userId, Long expectedVersion) {
+        Query query = new Query(Criteria.where("_id").is(planId));
+        query.fields().include("userId", "version", "completedTopics", "totalTopics",
+                "skillCategory", "progress", "createdAt", "completedAt");
+        LearningPlan counters = mongoTemplate.findOne(query, LearningPlan.class);
+
+        if (counters == null) {
+            throw new RuntimeException("Learning plan with ID " + planId + " not found");
+        }
+        if (!counters.getUserId().equals(userId)) {
+            throw new RuntimeException("User with ID " + userId + " is not authorized to access plan " + planId);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(counters.getVersion())) {
+            throw new OptimisticLockingFailureException("Learning plan " + planId + " was modified by another request");
+        }
+        return counters;
+    }
+
+    // Everything strictly after the cursor position in (updatedAt desc, _id desc) order
+    private static Criteria after(String cursor) {
+        PageCursor position = PageCursor.decode(cursor);
+        String lastId = position.requiredId();
+
+        // Plans saved before updatedAt was tracked sort after all others
+        if (!position.hasValue()) {
+            return Criteria.where("updatedAt").is(null).and("_id").lt(lastId);
+        }
+        LocalDateTime updatedAt = position.dateValue();
+        return new Criteria().orOperator(
+                Criteria.where("updatedAt").lt(updatedAt),
+                Criteria.where("updatedAt").is(updatedAt).and("_id").lt(lastId),
+                Criteria.where("updatedAt").is(null));
+    }
+
+    private static Query versionedPlanQuery(String planId, String userId, Long version) {
+        return new Query(Criteria.where("_id").is(planId).and("userId").is(userId).and("version").is(version));
+    }
+
+    private static void retryOrFail(String planId, Long expectedVersion, int attempt) {
+        if (expectedVersion != null) {
+            throw new OptimisticLockingFailureException("Learning plan " + planId + " was modified by another request");
+        }
+        log.debug("Concurrent update on plan {}, retrying (attempt {})", planId, attempt);
     }
 
     private LearningPlan getPlanAndValidateOwnership(String planId, String userId) {
@@ -0,0 +1,338 @@
+package com.paf.server.service;
+
+import com.paf.server.model.Comment;
+import com.paf.server.model.LikeEdge;
+import com.paf.server.model.LikeEdge.EntityType;
+import com.paf.server.model.Post;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Likes on posts and comments, stored as one {@link LikeEdge} per user and entity.
+ *
+ * <p>Like totals are not incremented per request: each node accumulates deltas per entity
+ * in memory and {@link #flush()} writes them as unordered bulks of $inc updates, so a
+ * burst of likes on a hot post becomes a single write instead of a queue of writers on the
+ * same document. Deltas not yet flushed by this node are added back in {@link #likeCount}.
+ * Deltas lost with a node that stopped before flushing are corrected by {@link #recount()}.
+ */
+@Slf4j
+@Service
+public class LikeService {
+
+    private static final int RECOUNT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ConcurrentHashMap<CounterKey, Long> pending = new ConcurrentHashMap<>();
+    private final Duration recountSettle;
+
+    public LikeService(MongoTemplate mongoTemplate,
+                       @Value("${likes.recount-settle:10s}") Duration recountSettle) {
+        this.mongoTemplate = mongoTemplate;
+        this.recountSettle = recountSettle;
+    }
+
+    /**
+     * Likes the entity, or removes the like if the user already liked it.
+     *
+     * @param parentId the post id for comments, {@code null} for posts
+     * @return whether the user likes the entity afterwards
+     */
+    public boolean toggle(EntityType type, String entityId, String parentId, String userId) {
+        LikeEdge edge = new LikeEdge();
+        edge.setEntityType(type);
+        edge.setEntityId(entityId);
+        edge.setParentId(parentId);
+        edge.setUserId(userId);
+        edge.setCreatedAt(LocalDateTime.now());
+        try {
+            mongoTemplate.insert(edge);
+            adjust(type, entityId, 1);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // Already liked, so this request is an unlike
+        }
+
+        long removed = mongoTemplate.remove(edgeQuery(type, entityId, userId), LikeEdge.class).getDeletedCount();
+        if (removed > 0) {
+            adjust(type, entityId, -1);
+        }
+        return false;
+    }
+
+    /**
+     * @return the subset of {@code entityIds} the user has liked
+     */
+    public Set<String> likedBy(String userId, EntityType type, Collection<String> entityIds) {
+        if (userId == null || entityIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("entityType").is(type).and("entityId").in(entityIds).and("userId").is(userId));
+        query.fields().include("entityId");
+        Set<String> liked = new HashSet<>();
+        for (LikeEdge edge : mongoTemplate.find(query, LikeEdge.class)) {
+            liked.add(edge.getEntityId());
+        }
+        return liked;
+    }
+
+    /**
+     * The stored total plus this node's unflushed delta, so a liker sees their own like.
+     */
+    public long likeCount(EntityType type, String entityId, long stored) {
+        Long delta = pending.get(new CounterKey(type, entityId));
+        return Math.max(0, stored + (delta == null ? 0 : delta));
+    }
+
+    public void deleteForPost(String postId) {
+        mongoTemplate.remove(new Query(new Criteria().orOperator(
+            Criteria.where("entityType").is(EntityType.POST).and("entityId").is(postId),
+            Criteria.where("parentId").is(postId))), LikeEdge.class);
+    }
+
+    public void deleteForComment(String commentId) {
+        mongoTemplate.remove(new Query(Criteria.where("entityType").is(EntityType.COMMENT).and("entityId").is(commentId)),
+            LikeEdge.class);
+    }
+
+    @Scheduled(fixedDelayString = "${likes.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // remove() is atomic with merge(), so a concurrent like lands either in this batch or the next
+        List<Map.Entry<CounterKey, Long>> batch = new ArrayList<>();
+        for (CounterKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta != null && delta != 0) {
+                batch.add(Map.entry(key, delta));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<CounterKey, Long>> postCounters = new ArrayList<>();
+        List<Map.Entry<CounterKey, Long>> commentCounters = new ArrayList<>();
+        for (Map.Entry<CounterKey, Long> entry : batch) {
+            (entry.getKey().type() == EntityType.POST ? postCounters : commentCounters).add(entry);
+        }
+        write(Post.class, postCounters);
+        write(Comment.class, commentCounters);
+
+        refreshPreviews(commentCounters.stream().map(entry -> entry.getKey().entityId()).toList());
+    }
+
+    /**
+     * Copies the stored like totals of the comments into the previews embedded in their posts.
+     * The totals are read back rather than incremented, so a preview that missed an update
+     * is corrected by the next one. Previews are display-only, so failures are just logged.
+     */
+    private void refreshPreviews(Collection<String> commentIds) {
+        if (commentIds.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").in(commentIds));
+        query.fields().include("postId", "likeCount");
+        try {
+            List<Comment> comments = mongoTemplate.find(query, Comment.class);
+            if (comments.isEmpty()) {
+                return;
+            }
+            BulkOperations previews = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            for (Comment comment : comments) {
+                previews.updateOne(
+                    new Query(Criteria.where("_id").is(comment.getPostId()).and("comments._id").is(comment.getId())),
+                    new Update().set("comments.$.likeCount", comment.getLikeCount()));
+            }
+            previews.execute();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to refresh like counts in comment previews", ex);
+        }
+    }
+
+    private void write(Class<?> entityClass, List<Map.Entry<CounterKey, Long>> counters) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        for (Map.Entry<CounterKey, Long> entry : counters) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(entry.getKey().entityId())),
+                new Update().inc("likeCount", entry.getValue()));
+        }
+
+        try {
+            bulk.execute();
+        } catch (BulkOperationException ex) {
+            // Unordered: only the failed updates are retried with the next flush
+            for (BulkWriteError error : ex.getErrors()) {
+                Map.Entry<CounterKey, Long> failed = counters.get(error.getIndex());
+                pending.merge(failed.getKey(), failed.getValue(), Long::sum);
+            }
+            log.warn("Failed to flush {} of {} like counters", ex.getErrors().size(), counters.size(), ex);
+        } catch (RuntimeException ex) {
+            counters.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), Long::sum));
+            log.warn("Failed to flush {} like counters", counters.size(), ex);
+        }
+    }
+
+    /**
+     * Recomputes like totals from the edges in two passes. The first walks posts and comments
+     * in batches with one $group over each batch's edges and only notes the entities whose
+     * stored total differs. A difference can also be a delta another node has not flushed
+     * yet, which overwriting the total would count twice, so after {@code likes.recount-settle}
+     * those entities are read again. Only a difference that is still the same is corrected,
+     * and only if the stored total has not moved since, so the recount never adds to drift.
+     */
+    @Scheduled(cron = "${likes.recount-cron:0 0 4 * * *}")
+    public void recount() {
+        flush();
+        Map<Object, Long> postDrift = findDrift(EntityType.POST, "posts");
+        Map<Object, Long> commentDrift = findDrift(EntityType.COMMENT, "comments");
+        if (postDrift.isEmpty() && commentDrift.isEmpty()) {
+            return;
+        }
+
+        try {
+            Thread.sleep(recountSettle.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        flush();
+        long corrected = correct(EntityType.POST, "posts", postDrift) + correct(EntityType.COMMENT, "comments", commentDrift);
+        if (corrected > 0) {
+            log.info("Corrected {} like totals from like edges", corrected);
+        }
+    }
+
+    // Entity _id to edge count minus stored total, for every entity where they differ
+    private Map<Object, Long> findDrift(EntityType type, String collectionName) {
+        MongoCollection<Document> entities = mongoTemplate.getCollection(collectionName);
+        Map<Object, Long> drift = new LinkedHashMap<>();
+        List<Document> batch = new ArrayList<>(RECOUNT_BATCH_SIZE);
+        for (Document entity : entities.find().projection(Projections.include("likeCount")).batchSize(RECOUNT_BATCH_SIZE)) {
+            batch.add(entity);
+            if (batch.size() >= RECOUNT_BATCH_SIZE) {
+                collectDrift(type, batch, drift);
+                batch.clear();
+            }
+        }
+        collectDrift(type, batch, drift);
+        return drift;
+    }
+
+    private void collectDrift(EntityType type, List<Document> batch, Map<Object, Long> drift) {
+        Map<String, Long> counts = edgeCounts(type, batch);
+        for (Document entity : batch) {
+            long difference = counts.getOrDefault(entity.get("_id").toString(), 0L) - storedCount(entity);
+            if (difference != 0) {
+                drift.put(entity.get("_id"), difference);
+            }
+        }
+    }
+
+    private long correct(EntityType type, String collectionName, Map<Object, Long> drift) {
+        MongoCollection<Document> entities = mongoTemplate.getCollection(collectionName);
+        List<Object> ids = new ArrayList<>(drift.keySet());
+        long corrected = 0;
+        for (int from = 0; from < ids.size(); from += RECOUNT_BATCH_SIZE) {
+            List<Document> batch = new ArrayList<>();
+            for (Document entity : entities.find(Filters.in("_id", ids.subList(from, Math.min(from + RECOUNT_BATCH_SIZE, ids.size()))))
+                    .projection(Projections.include("likeCount"))) {
+                batch.add(entity);
+            }
+            Map<String, Long> counts = edgeCounts(type, batch);
+
+            List<WriteModel<Document>> writes = new ArrayList<>();
+            List<String> correctedIds = new ArrayList<>();
+            for (Document entity : batch) {
+                long stored = storedCount(entity);
+                long actual = counts.getOrDefault(entity.get("_id").toString(), 0L);
+                if (actual - stored != drift.get(entity.get("_id"))) {
+                    // Moved since the first pass: an in-flight delta, left to the next run
+                    continue;
+                }
+                writes.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", entity.get("_id")), Filters.eq("likeCount", entity.get("likeCount"))),
+                    Updates.set("likeCount", actual)));
+                correctedIds.add(entity.get("_id").toString());
+            }
+            if (!writes.isEmpty()) {
+                corrected += entities.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getModifiedCount();
+            }
+            if (type == EntityType.COMMENT) {
+                refreshPreviews(correctedIds);
+            }
+        }
+        return corrected;
+    }
+
+    // Edges reference entities by the string form of their _id
+    private Map<String, Long> edgeCounts(EntityType type, List<Document> entities) {
+        Map<String, Long> counts = new HashMap<>();
+        if (entities.isEmpty()) {
+            return counts;
+        }
+        List<String> entityIds = entities.stream().map(entity -> entity.get("_id").toString()).toList();
+        for (Document group : mongoTemplate.getCollection("likes").aggregate(List.of(
+                new Document("$match", new Document("entityType", type.name()).append("entityId", new Document("$in", entityIds))),
+                new Document("$group", new Document("_id", "$entityId").append("count", new Document("$sum", 1)))))) {
+            counts.put(group.getString("_id"), ((Number) group.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private static long storedCount(Document entity) {
+        Number likeCount = entity.get("likeCount", Number.class);
+        return likeCount == null ? 0 : likeCount.longValue();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void adjust(EntityType type, String entityId, long delta) {
+        pending.merge(new CounterKey(type, entityId), delta, Long::sum);
+    }
+
+    private static Query edgeQuery(EntityType type, String entityId, String userId) {
+        return new Query(Criteria.where("entityType").is(type).and("entityId").is(entityId).and("userId").is(userId));
+    }
+
+    private record CounterKey(EntityType type, String entityId) {
+    }
+}
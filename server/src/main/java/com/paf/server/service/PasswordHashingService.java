@@ -0,0 +1,30 @@
+package com.paf.server.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor executor) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+    }
+
+    /**
+     * Hashes the password on the dedicated hashing pool.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when the pool and its queue are full
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+    }
+}
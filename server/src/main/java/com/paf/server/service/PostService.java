@@ -0,0 +1,199 @@
+package com.paf.server.service;
+
+import com.paf.server.event.PostCreatedEvent;
+import com.paf.server.model.Comment;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.LikeEdge.EntityType;
+import com.paf.server.model.Post;
+import com.paf.server.model.PostView;
+import com.paf.server.model.User;
+import com.paf.server.model.UserSummary;
+import com.paf.server.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Post writes and feed rendering. Likes are delegated to {@link LikeService} and comment
+ * threads to {@link CommentService}; posts only carry a short comment preview.
+ */
+@Slf4j
+@Service
+public class PostService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final PostRepository postRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationService notificationService;
+    private final UserSummaryService userSummaryService;
+    private final EntityCacheService entityCacheService;
+    private final LikeService likeService;
+    private final CommentService commentService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PostService(PostRepository postRepository,
+                       MongoTemplate mongoTemplate,
+                       NotificationService notificationService,
+                       UserSummaryService userSummaryService,
+                       EntityCacheService entityCacheService,
+                       LikeService likeService,
+                       CommentService commentService,
+                       ApplicationEventPublisher eventPublisher) {
+        this.postRepository = postRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.notificationService = notificationService;
+        this.userSummaryService = userSummaryService;
+        this.entityCacheService = entityCacheService;
+        this.likeService = likeService;
+        this.commentService = commentService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Post createPost(User author, Post request) {
+        boolean hasContent = request.getContent() != null && !request.getContent().isBlank();
+        boolean hasMedia = request.getMediaUrls() != null && !request.getMediaUrls().isEmpty();
+        if (!hasContent && !hasMedia) {
+            throw new IllegalArgumentException("A post needs content or media");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Post post = new Post();
+        post.setUserId(author.getId());
+        post.setContent(request.getContent());
+        post.setSkillCategory(request.getSkillCategory());
+        if (request.getTags() != null) {
+            post.setTags(request.getTags());
+        }
+        if (hasMedia) {
+            post.setMediaUrls(request.getMediaUrls());
+        }
+        post.setCreatedAt(now);
+        post.setUpdatedAt(now);
+        Post saved = postRepository.insert(post);
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(author.getId())),
+            new Update().inc("postCount", 1), User.class);
+        entityCacheService.evictUser(author.getId());
+        eventPublisher.publishEvent(new PostCreatedEvent(saved.getId(), author.getId(), now));
+        log.debug("User {} created post {}", author.getId(), saved.getId());
+        return saved;
+    }
+
+    public Optional<Post> findPost(String postId) {
+        return postRepository.findById(postId);
+    }
+
+    /**
+     * @return {@code false} when the post does not exist or belongs to someone else
+     */
+    public boolean deletePost(String postId, String userId) {
+        Post removed = mongoTemplate.findAndRemove(
+            new Query(Criteria.where("_id").is(postId).and("userId").is(userId)), Post.class);
+        if (removed == null) {
+            return false;
+        }
+        commentService.deleteForPost(postId);
+        likeService.deleteForPost(postId);
+        // Timeline entries are left in place; feeds skip posts that no longer exist
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+            new Update().inc("postCount", -1).pull("postIds", postId), User.class);
+        entityCacheService.evictUser(userId);
+        return true;
+    }
+
+    /**
+     * Likes the post, or removes the like if the user already liked it.
+     */
+    public Optional<Post> toggleLike(String postId, String userId) {
+        Optional<Post> post = findPost(postId);
+        if (post.isEmpty()) {
+            return Optional.empty();
+        }
+        if (likeService.toggle(EntityType.POST, postId, null, userId)) {
+            notificationService.createPostLikeNotification(postId, userId, post.get().getUserId());
+        }
+        return post;
+    }
+
+    /**
+     * One author's posts newest first; the cursor is the last post id seen.
+     */
+    public CursorPage<PostView> getUserPosts(String userId, String cursor, int limit, String viewerId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null && !cursor.isBlank()) {
+            if (!ObjectId.isValid(cursor)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            criteria = criteria.and("_id").lt(new ObjectId(cursor));
+        }
+
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "_id"))
+            .limit(pageSize + 1);
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            nextCursor = posts.get(pageSize - 1).getId();
+        }
+        return new CursorPage<>(toViews(posts, viewerId), nextCursor);
+    }
+
+    /**
+     * @return the posts that still exist, in no particular order
+     */
+    public List<Post> findPosts(Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(postIds)), Post.class);
+    }
+
+    public PostView toView(Post post, String viewerId) {
+        return toViews(List.of(post), viewerId).get(0);
+    }
+
+    /**
+     * Resolves authors in one batch through the summary cache and the viewer's likes with one
+     * query per entity type, then fills in like totals including unflushed deltas.
+     */
+    public List<PostView> toViews(List<Post> posts, String viewerId) {
+        Map<String, UserSummary> authors = userSummaryService.getSummaries(
+                posts.stream().map(Post::getUserId).toList()).stream()
+            .collect(Collectors.toMap(UserSummary::id, Function.identity()));
+        Set<String> likedPosts = likeService.likedBy(viewerId, EntityType.POST,
+            posts.stream().map(Post::getId).toList());
+        Set<String> likedComments = likeService.likedBy(viewerId, EntityType.COMMENT,
+            posts.stream().flatMap(post -> post.getComments().stream()).map(Comment::getId).toList());
+
+        List<PostView> views = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            post.setLikeCount(likeService.likeCount(EntityType.POST, post.getId(), post.getLikeCount()));
+            for (Comment comment : post.getComments()) {
+                comment.setLikeCount(likeService.likeCount(EntityType.COMMENT, comment.getId(), comment.getLikeCount()));
+                comment.setLikedByMe(likedComments.contains(comment.getId()));
+            }
+            views.add(new PostView(post, authors.get(post.getUserId()), likedPosts.contains(post.getId())));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,95 @@
+package com.paf.server.service;
+
+import com.paf.server.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Applies profile patches as field-level $set updates guarded by {@link User#getVersion()},
+ * so a profile edit never rewrites (or clobbers) membership, follow or post data.
+ */
+@Slf4j
+@Service
+public class ProfileService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final EntityCacheService entityCacheService;
+
+    public ProfileService(MongoTemplate mongoTemplate,
+                          EntityCacheService entityCacheService) {
+        this.mongoTemplate = mongoTemplate;
+        this.entityCacheService = entityCacheService;
+    }
+
+    /**
+     * @param changes         field name to new value, already validated
+     * @param expectedVersion version the client last saw, or {@code null} to retry on concurrent edits
+     * @return only the fields whose value actually changed plus the resulting version,
+     *         or empty when the user does not exist
+     * @throws OptimisticLockingFailureException when {@code expectedVersion} is stale
+     */
+    public Optional<Map<String, Object>> applyPatch(String email, Map<String, Object> changes, Long expectedVersion) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Query currentQuery = new Query(Criteria.where("email").is(email));
+            currentQuery.fields().include("version");
+            changes.keySet().forEach(field -> currentQuery.fields().include(field));
+
+            Document current = mongoTemplate.findOne(currentQuery, Document.class, "users");
+            if (current == null) {
+                return Optional.empty();
+            }
+
+            long currentVersion = Optional.ofNullable(current.get("version", Number.class)).map(Number::longValue).orElse(0L);
+            if (expectedVersion != null && expectedVersion != currentVersion) {
+                throw new OptimisticLockingFailureException("Profile was modified by another request");
+            }
+
+            Map<String, Object> changed = new LinkedHashMap<>();
+            changes.forEach((field, value) -> {
+                if (!Objects.equals(current.get(field), value)) {
+                    changed.put(field, value);
+                }
+            });
+            if (changed.isEmpty()) {
+                changed.put("version", currentVersion);
+                return Optional.of(changed);
+            }
+
+            Update update = new Update().inc("version", 1);
+            changed.forEach(update::set);
+            Query guarded = new Query(Criteria.where("_id").is(current.get("_id")).andOperator(versionIs(currentVersion)));
+            if (mongoTemplate.updateFirst(guarded, update, User.class).getMatchedCount() == 1) {
+                entityCacheService.evictUser(current.get("_id").toString());
+                changed.put("version", currentVersion + 1);
+                return Optional.of(changed);
+            }
+
+            if (expectedVersion != null) {
+                throw new OptimisticLockingFailureException("Profile was modified by another request");
+            }
+            log.debug("Concurrent profile update for {}, retrying (attempt {})", email, attempt);
+        }
+        throw new OptimisticLockingFailureException("Profile is being modified concurrently, try again");
+    }
+
+    // Documents written before versioning have no version field and count as version 0
+    private static Criteria versionIs(long version) {
+        if (version == 0) {
+            return new Criteria().orOperator(Criteria.where("version").is(0), Criteria.where("version").exists(false));
+        }
+        return Criteria.where("version").is(version);
+    }
+}
@@ -0,0 +1,63 @@
+package com.paf.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Per-client token bucket for the registration endpoint. Buckets live in a bounded cache and
+ * are dropped once idle long enough to have refilled, since a full bucket carries no state.
+ */
+@Service
+public class RegistrationRateLimiter {
+
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final Cache<String, TokenBucket> buckets;
+    private final int capacity;
+    private final double refillPerNano;
+
+    public RegistrationRateLimiter(
+            @Value("${registration.rate-limit.capacity:5}") int capacity,
+            @Value("${registration.rate-limit.refill-per-minute:5}") int refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000d;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_CLIENTS)
+            .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / refillPerNano)))
+            .build();
+    }
+
+    public boolean tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        return buckets.get(clientKey, key -> new TokenBucket(capacity, now))
+                .tryConsume(now, capacity, refillPerNano);
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryConsume(long now, int capacity, double refillPerNano) {
+            refill(now, capacity, refillPerNano);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        private void refill(long now, int capacity, double refillPerNano) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.paf.server.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.paf.server.model.FileRendition;
+import com.paf.server.storage.StorageBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Produces downscaled, re-encoded renditions of uploaded images on a bounded worker pool.
+ *
+ * <p>Renditions are stored under fixed names derived from the original, so serving one is
+ * a signed-URL cache lookup and never needs the job document. The name also fixes the
+ * format: PNG originals keep PNG renditions, so transparency survives, and everything else
+ * is re-encoded as JPEG under a {@code .jpg} name. Rendition sizes that the original does
+ * not exceed are not generated; lookups fall through to the next larger one.
+ */
+@Slf4j
+@Service
+public class RenditionService {
+
+    public enum Rendition {
+        THUMBNAIL(160),
+        MEDIUM(800),
+        ORIGINAL(0);
+
+        private final int maxDimension;
+
+        Rendition(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Rendition parse(String value) {
+            if (value == null || value.isBlank()) {
+                return ORIGINAL;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown size '" + value + "', expected thumbnail, medium or original");
+            }
+        }
+    }
+
+    // GIFs keep their animation by being served as uploaded
+    private static final Set<String> RESIZABLE_TYPES = Set.of("image/jpeg", "image/png", "image/bmp");
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final StorageBackend storageBackend;
+    private final SignedUrlService signedUrlService;
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolTaskExecutor renditionExecutor;
+    private final long maxPixels;
+    private final Duration staleAfter;
+
+    public RenditionService(StorageBackend storageBackend,
+                            SignedUrlService signedUrlService,
+                            MongoTemplate mongoTemplate,
+                            @Qualifier("renditionExecutor") ThreadPoolTaskExecutor renditionExecutor,
+                            @Value("${renditions.max-pixels:40000000}") long maxPixels,
+                            @Value("${renditions.stale-after:10m}") Duration staleAfter) {
+        this.storageBackend = storageBackend;
+        this.signedUrlService = signedUrlService;
+        this.mongoTemplate = mongoTemplate;
+        this.renditionExecutor = renditionExecutor;
+        this.maxPixels = maxPixels;
+        this.staleAfter = staleAfter;
+    }
+
+    public static String objectName(String filename, Rendition rendition) {
+        if (rendition == Rendition.ORIGINAL) {
+            return filename;
+        }
+        if (isPng(filename)) {
+            return "renditions/" + rendition.key() + "/" + filename;
+        }
+        int dot = filename.lastIndexOf('.');
+        String base = dot > filename.lastIndexOf('/') ? filename.substring(0, dot) : filename;
+        return "renditions/" + rendition.key() + "/" + base + ".jpg";
+    }
+
+    /**
+     * Every name a rendition of the file may be stored under, including the names used
+     * before they followed the output format, for cleanup.
+     */
+    public static Set<String> storedNames(String filename) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Rendition rendition : Rendition.values()) {
+            names.add(objectName(filename, rendition));
+            if (rendition != Rendition.ORIGINAL) {
+                names.add("renditions/" + rendition.key() + "/" + filename);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Object names to try for the requested rendition, best match first, ending with the
+     * original.
+     */
+    public static List<String> candidates(String filename, Rendition requested) {
+        List<String> names = new ArrayList<>();
+        for (Rendition rendition : Rendition.values()) {
+            if (rendition.ordinal() >= requested.ordinal()) {
+                names.add(objectName(filename, rendition));
+            }
+        }
+        return names;
+    }
+
+    public boolean isResizable(String contentType) {
+        return contentType != null && RESIZABLE_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    public Optional<FileRendition> getStatus(String filename) {
+        return Optional.ofNullable(mongoTemplate.findById(filename, FileRendition.class));
+    }
+
+    /**
+     * Queues a rendition job unless one for the same file is already pending, running or
+     * done. Failed and skipped jobs are reclaimed and run again, and so are pending or
+     * running jobs untouched for {@code renditions.stale-after}: the queue is in memory, so
+     * those were lost with a restart.
+     */
+    public FileRendition.Status submit(String filename) {
+        LocalDateTime now = LocalDateTime.now();
+        UpdateResult created = mongoTemplate.upsert(new Query(Criteria.where("_id").is(filename)),
+            new Update().setOnInsert("status", FileRendition.Status.PENDING).setOnInsert("createdAt", now).setOnInsert("updatedAt", now),
+            FileRendition.class);
+        if (created.getUpsertedId() == null) {
+            UpdateResult reclaimed = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(filename).orOperator(
+                    Criteria.where("status").in(FileRendition.Status.FAILED, FileRendition.Status.SKIPPED),
+                    Criteria.where("status").in(FileRendition.Status.PENDING, FileRendition.Status.PROCESSING)
+                        .and("updatedAt").lt(now.minus(staleAfter)))),
+                new Update().set("status", FileRendition.Status.PENDING).unset("error").set("updatedAt", now),
+                FileRendition.class);
+            if (reclaimed.getModifiedCount() == 0) {
+                return getStatus(filename).map(FileRendition::getStatus).orElse(FileRendition.Status.PENDING);
+            }
+        }
+
+        try {
+            renditionExecutor.execute(() -> process(filename));
+            return FileRendition.Status.PENDING;
+        } catch (RejectedExecutionException ex) {
+            log.warn("Rendition queue full, skipping {}", filename);
+            setStatus(filename, FileRendition.Status.SKIPPED, null);
+            return FileRendition.Status.SKIPPED;
+        }
+    }
+
+    private void process(String filename) {
+        setStatus(filename, FileRendition.Status.PROCESSING, null);
+        try {
+            BufferedImage source = read(filename);
+            boolean png = isPng(filename);
+            boolean alpha = png && source.getColorModel().hasAlpha();
+            Map<String, String> renditions = new HashMap<>();
+            renditions.put(Rendition.ORIGINAL.key(), filename);
+
+            for (Rendition rendition : Rendition.values()) {
+                if (rendition == Rendition.ORIGINAL
+                        || Math.max(source.getWidth(), source.getHeight()) <= rendition.maxDimension) {
+                    continue;
+                }
+                String objectName = objectName(filename, rendition);
+                write(objectName, scale(source, rendition.maxDimension, alpha), png);
+                renditions.put(rendition.key(), objectName);
+                signedUrlService.evict(objectName);
+            }
+
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(filename)),
+                new Update().set("status", FileRendition.Status.READY)
+                    .set("renditions", renditions)
+                    .set("width", source.getWidth())
+                    .set("height", source.getHeight())
+                    .set("updatedAt", LocalDateTime.now()),
+                FileRendition.class);
+            log.info("Rendered {} rendition(s) of {}", renditions.size() - 1, filename);
+        } catch (Exception ex) {
+            log.error("Rendition of {} failed: {}", filename, ex.getMessage(), ex);
+            setStatus(filename, FileRendition.Status.FAILED, ex.getMessage());
+        }
+    }
+
+    // Checks the header dimensions before decoding so oversized images are never inflated
+    private BufferedImage read(String filename) throws IOException {
+        try (InputStream content = storageBackend.open(filename);
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image has " + pixels + " pixels, limit is " + maxPixels);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves in steps before the final bilinear pass, which keeps downscaled detail smooth.
+    // Without alpha, transparent pixels are flattened onto white.
+    private static BufferedImage scale(BufferedImage source, int maxDimension, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        double ratio = (double) maxDimension / Math.max(source.getWidth(), source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, alpha ? null : Color.WHITE, null);
+            graphics.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(String objectName, BufferedImage image, boolean png) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        if (png) {
+            ImageIO.write(image, "png", encoded);
+        } else {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(encoded)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        }
+        storageBackend.write(objectName, new ByteArrayInputStream(encoded.toByteArray()),
+            png ? "image/png" : "image/jpeg");
+    }
+
+    private static boolean isPng(String filename) {
+        return filename.toLowerCase(Locale.ROOT).endsWith(".png");
+    }
+
+    private void setStatus(String filename, FileRendition.Status status, String error) {
+        Update update = new Update().set("status", status).set("updatedAt", LocalDateTime.now());
+        if (error != null) {
+            update.set("error", error);
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(filename)), update, FileRendition.class);
+    }
+}
@@ -0,0 +1,302 @@
+package com.paf.server.service;
+
+import com.paf.server.config.UploadProperties;
+import com.paf.server.model.StoredFile;
+import com.paf.server.model.UploadSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resumable uploads: initiate a session, append chunks at the current offset, then finalize.
+ * Each chunk is streamed straight into a part file on local disk and the session offset is
+ * advanced by the bytes that actually arrived, so a dropped connection loses at most the
+ * unwritten tail of one chunk. Finalizing hands the part file to {@link ContentStoreService},
+ * which hashes and stores it without loading it into memory.
+ *
+ * <p>Part files are node-local, so a session has to be continued on the node that started
+ * it. Sessions untouched for {@code upload.resumable.session-ttl} are swept with their files.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentStoreService contentStoreService;
+    private final UploadProperties uploadProperties;
+    private final Path partDirectory;
+    private final long maxFileSize;
+    private final long maxChunkSize;
+    private final Duration sessionTtl;
+    private final Duration chunkLease;
+
+    public ResumableUploadService(MongoTemplate mongoTemplate,
+                                  ContentStoreService contentStoreService,
+                                  UploadProperties uploadProperties,
+                                  @Value("${upload.resumable.dir:${java.io.tmpdir}/paf-resumable}") String partDirectory,
+                                  @Value("${upload.resumable.max-file-size:2GB}") DataSize maxFileSize,
+                                  @Value("${upload.resumable.max-chunk-size:32MB}") DataSize maxChunkSize,
+                                  @Value("${upload.resumable.session-ttl:24h}") Duration sessionTtl,
+                                  @Value("${upload.resumable.chunk-lease:2m}") Duration chunkLease) throws IOException {
+        this.mongoTemplate = mongoTemplate;
+        this.contentStoreService = contentStoreService;
+        this.uploadProperties = uploadProperties;
+        this.partDirectory = Files.createDirectories(Paths.get(partDirectory).toAbsolutePath().normalize());
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxChunkSize = maxChunkSize.toBytes();
+        this.sessionTtl = sessionTtl;
+        this.chunkLease = chunkLease;
+    }
+
+    public long getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public UploadSession initiate(String ownerId, String filename, String contentType, long totalSize) throws IOException {
+        if (!uploadProperties.isAllowed(contentType)) {
+            throw new IllegalArgumentException("Only image and video files are allowed");
+        }
+        if (totalSize <= 0 || totalSize > maxFileSize) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxFileSize + " bytes");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOwnerId(ownerId);
+        session.setFilename(filename);
+        session.setContentType(contentType);
+        session.setTotalSize(totalSize);
+        session.setStatus(UploadSession.Status.OPEN);
+        session.setCreatedAt(now);
+        session.setUpdatedAt(now);
+        session.setExpiresAt(now.plus(sessionTtl));
+        Files.createFile(partFile(session.getId()));
+        return mongoTemplate.insert(session);
+    }
+
+    /**
+     * @return the session, or empty if it does not exist or belongs to someone else
+     */
+    public Optional<UploadSession> find(String sessionId, String ownerId) {
+        UploadSession session = mongoTemplate.findById(sessionId, UploadSession.class);
+        return Optional.ofNullable(session).filter(found -> found.getOwnerId().equals(ownerId));
+    }
+
+    /**
+     * Appends the request body at {@code offset}, which must be the session's current
+     * offset. Whatever arrives is kept even if the connection drops part way.
+     *
+     * <p>The offset is claimed with a lease before anything is written, so of two requests
+     * for the same offset only one touches the part file. The lease is renewed while bytes
+     * arrive and released when the new offset is recorded.
+     *
+     * @return the new offset
+     */
+    public long appendChunk(UploadSession session, long offset, InputStream body) throws IOException {
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new IllegalStateException("Upload is already being finalized");
+        }
+        if (offset != session.getReceivedBytes()) {
+            throw new IllegalStateException("Expected offset " + session.getReceivedBytes());
+        }
+        String writer = UUID.randomUUID().toString();
+        if (!claimOffset(session.getId(), offset, writer)) {
+            throw new IllegalStateException("Offset " + offset + " is not current or another chunk is being written");
+        }
+        long limit = Math.min(maxChunkSize, session.getTotalSize() - offset);
+
+        long written = 0;
+        IOException interrupted = null;
+        try {
+            try (FileChannel part = FileChannel.open(partFile(session.getId()), StandardOpenOption.WRITE)) {
+                // Drops bytes past the recorded offset left by an earlier, unrecorded write
+                part.truncate(offset);
+                ReadableByteChannel source = Channels.newChannel(body);
+                try {
+                    long transferred;
+                    while (written < limit
+                            && (transferred = part.transferFrom(source, offset + written, Math.min(TRANSFER_CHUNK, limit - written))) > 0) {
+                        written += transferred;
+                        renewLease(session.getId(), writer);
+                    }
+                    if (written == limit && body.read() != -1) {
+                        part.truncate(offset);
+                        throw new IllegalArgumentException(
+                            "Chunk exceeds " + (limit == maxChunkSize ? "the maximum chunk size" : "the declared file size"));
+                    }
+                } catch (IOException ex) {
+                    interrupted = ex;
+                }
+                part.force(false);
+            }
+        } catch (IOException | RuntimeException ex) {
+            releaseLease(session.getId(), writer);
+            throw ex;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        long newOffset = offset + written;
+        long updated = mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(session.getId()).and("writer").is(writer)),
+            new Update().set("receivedBytes", newOffset)
+                .set("updatedAt", now)
+                .set("expiresAt", now.plus(sessionTtl))
+                .unset("writer")
+                .unset("writingUntil"),
+            UploadSession.class).getModifiedCount();
+        if (updated == 0) {
+            throw new IllegalStateException("Upload was modified by a concurrent request");
+        }
+        if (interrupted != null) {
+            log.info("Upload {} interrupted at offset {}: {}", session.getId(), newOffset, interrupted.getMessage());
+            throw interrupted;
+        }
+        return newOffset;
+    }
+
+    /**
+     * Stores the assembled file and closes the session. Finalizing a completed session
+     * returns the same object again.
+     */
+    public StoredFile complete(UploadSession session) throws IOException {
+        if (session.getStatus() == UploadSession.Status.COMPLETED) {
+            return mongoTemplate.findOne(new Query(Criteria.where("objectName").is(session.getObjectName())), StoredFile.class);
+        }
+        if (session.getReceivedBytes() != session.getTotalSize()) {
+            throw new IllegalStateException("Upload is incomplete: " + session.getReceivedBytes()
+                + " of " + session.getTotalSize() + " bytes received");
+        }
+
+        LocalDateTime claimedAt = LocalDateTime.now();
+        UploadSession claimed = mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(session.getId())
+                .and("status").is(UploadSession.Status.OPEN)
+                .and("receivedBytes").is(session.getTotalSize())
+                .orOperator(Criteria.where("writingUntil").is(null), Criteria.where("writingUntil").lt(claimedAt))),
+            new Update().set("status", UploadSession.Status.COMPLETING)
+                .set("updatedAt", claimedAt)
+                .set("expiresAt", claimedAt.plus(sessionTtl)),
+            FindAndModifyOptions.options().returnNew(true), UploadSession.class);
+        if (claimed == null) {
+            throw new IllegalStateException("Upload is already being finalized");
+        }
+
+        Path part = partFile(session.getId());
+        long partSize = Files.exists(part) ? Files.size(part) : 0;
+        if (partSize != session.getTotalSize()) {
+            // The recorded offset is ahead of the disk, so the client resumes from what is there
+            long resumeAt = Math.min(partSize, session.getTotalSize());
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(session.getId())),
+                new Update().set("status", UploadSession.Status.OPEN).set("receivedBytes", resumeAt), UploadSession.class);
+            throw new IllegalStateException("Upload is incomplete: part file holds " + partSize
+                + " of " + session.getTotalSize() + " bytes");
+        }
+
+        StoredFile stored;
+        try {
+            stored = contentStoreService.store(new FileSystemResource(part), session.getFilename(),
+                session.getContentType(), session.getOwnerId());
+        } catch (IOException | RuntimeException ex) {
+            // Lets the client retry the finalize
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(session.getId())),
+                new Update().set("status", UploadSession.Status.OPEN), UploadSession.class);
+            throw ex;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(session.getId())),
+            new Update().set("status", UploadSession.Status.COMPLETED)
+                .set("objectName", stored.getObjectName())
+                .set("updatedAt", now)
+                .set("expiresAt", now.plus(sessionTtl)),
+            UploadSession.class);
+        Files.deleteIfExists(part);
+        log.info("Completed resumable upload {} as {}", session.getId(), stored.getObjectName());
+        return stored;
+    }
+
+    public void abort(UploadSession session) throws IOException {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(session.getId())), UploadSession.class);
+        Files.deleteIfExists(partFile(session.getId()));
+    }
+
+    @Scheduled(fixedDelayString = "${upload.resumable.sweep-interval-ms:900000}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Query expired = new Query(Criteria.where("expiresAt").lt(now));
+        expired.fields().include("_id");
+
+        List<UploadSession> sessions = mongoTemplate.find(expired, UploadSession.class);
+        for (UploadSession session : sessions) {
+            try {
+                Files.deleteIfExists(partFile(session.getId()));
+            } catch (IOException ex) {
+                log.warn("Could not delete part file for upload {}: {}", session.getId(), ex.getMessage());
+                continue;
+            }
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(session.getId()).and("expiresAt").lt(now)),
+                UploadSession.class);
+        }
+        if (!sessions.isEmpty()) {
+            log.info("Swept {} expired upload sessions", sessions.size());
+        }
+    }
+
+    // A lease left by a crashed node lapses after chunk-lease and can be taken over
+    private boolean claimOffset(String sessionId, long offset, String writer) {
+        LocalDateTime now = LocalDateTime.now();
+        return mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(sessionId)
+                .and("status").is(UploadSession.Status.OPEN)
+                .and("receivedBytes").is(offset)
+                .orOperator(Criteria.where("writingUntil").is(null), Criteria.where("writingUntil").lt(now))),
+            new Update().set("writer", writer).set("writingUntil", now.plus(chunkLease)),
+            UploadSession.class).getModifiedCount() > 0;
+    }
+
+    private void renewLease(String sessionId, String writer) {
+        long renewed = mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(sessionId).and("writer").is(writer)),
+            new Update().set("writingUntil", LocalDateTime.now().plus(chunkLease)),
+            UploadSession.class).getMatchedCount();
+        if (renewed == 0) {
+            throw new IllegalStateException("Upload was modified by a concurrent request");
+        }
+    }
+
+    private void releaseLease(String sessionId, String writer) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(sessionId).and("writer").is(writer)),
+            new Update().unset("writer").unset("writingUntil"), UploadSession.class);
+    }
+
+    // Session ids are generated UUIDs, so they are safe as file names
+    private Path partFile(String sessionId) {
+        return partDirectory.resolve(sessionId + ".part");
+    }
+}
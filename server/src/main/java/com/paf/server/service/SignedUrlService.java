@@ -0,0 +1,102 @@
+package com.paf.server.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import com.paf.server.storage.StorageBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Download URLs by object name, signed where the storage backend needs it. A cached URL is re-signed in the background once it
+ * is {@code refresh-after} old, so hot objects never wait on a signature, and it is dropped
+ * well before the URL itself expires. Missing objects are cached briefly as well, so
+ * repeated requests for them do not reach storage either.
+ */
+@Slf4j
+@Service
+public class SignedUrlService {
+
+    private final StorageBackend storageBackend;
+    private final Duration validity;
+    private final LoadingCache<String, Optional<String>> urls;
+
+    public SignedUrlService(StorageBackend storageBackend,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("signedUrlExecutor") ThreadPoolTaskExecutor signedUrlExecutor,
+                            @Value("${signed-urls.validity:7d}") Duration validity,
+                            @Value("${signed-urls.refresh-after:1d}") Duration refreshAfter,
+                            @Value("${signed-urls.expire-after:3d}") Duration expireAfter,
+                            @Value("${signed-urls.negative-ttl:1m}") Duration negativeTtl,
+                            @Value("${signed-urls.max-size:10000}") long maxSize) {
+        if (expireAfter.compareTo(validity) >= 0 || refreshAfter.compareTo(expireAfter) >= 0) {
+            throw new IllegalArgumentException("signed-urls requires refresh-after < expire-after < validity");
+        }
+        this.storageBackend = storageBackend;
+        this.validity = validity;
+        this.urls = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<String, Optional<String>>() {
+                @Override
+                public long expireAfterCreate(String filename, Optional<String> url, long currentTime) {
+                    return (url.isPresent() ? expireAfter : negativeTtl).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String filename, Optional<String> url, long currentTime, long currentDuration) {
+                    return expireAfterCreate(filename, url, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String filename, Optional<String> url, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .refreshAfterWrite(refreshAfter)
+            .executor(signedUrlExecutor)
+            .recordStats()
+            .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, urls, "signedUrls");
+    }
+
+    /**
+     * @return a signed URL, or empty if the object does not exist
+     */
+    public Optional<String> getUrl(String filename) {
+        return urls.get(filename);
+    }
+
+    /**
+     * Signs a URL for an object that was just written and caches it; skips the existence
+     * check since the caller knows the object is there.
+     */
+    public String signNew(String filename) {
+        String url = sign(filename);
+        urls.put(filename, Optional.of(url));
+        return url;
+    }
+
+    public void evict(String filename) {
+        urls.invalidate(filename);
+    }
+
+    private Optional<String> load(String filename) {
+        if (!storageBackend.exists(filename)) {
+            log.debug("File not found: {}", filename);
+            return Optional.empty();
+        }
+        return Optional.of(sign(filename));
+    }
+
+    private String sign(String filename) {
+        return storageBackend.url(filename, validity);
+    }
+}
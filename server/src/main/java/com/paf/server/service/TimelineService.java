@@ -0,0 +1,287 @@
+package com.paf.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.paf.server.event.PostCreatedEvent;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.FollowEdge;
+import com.paf.server.model.PageCursor;
+import com.paf.server.model.Post;
+import com.paf.server.model.PostView;
+import com.paf.server.model.TimelineBucket;
+import com.paf.server.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Home timelines, fanned out on write. A new post is pushed into the open
+ * {@link TimelineBucket} of its author and of every follower, so reading a feed page is one
+ * bucket plus one $in for the posts it references.
+ *
+ * <p>Accounts with more than {@code timeline.fanout.max-followers} followers are not fanned
+ * out; their posts are pulled in at read time for the time range the bucket covers. Once a
+ * reader is past their oldest bucket (or has none yet), older pages are read straight from
+ * the posts of the accounts they follow.
+ */
+@Slf4j
+@Service
+public class TimelineService {
+
+    private final MongoTemplate mongoTemplate;
+    private final PostService postService;
+    private final int bucketSize;
+    private final int maxBuckets;
+    private final long fanoutMaxFollowers;
+    private final int fanoutBatchSize;
+    private final int pullMaxFollowees;
+    // Reader id -> followed accounts whose posts are not fanned out
+    private final Cache<String, List<String>> largeFollowees;
+
+    public TimelineService(MongoTemplate mongoTemplate,
+                           PostService postService,
+                           @Value("${timeline.bucket-size:50}") int bucketSize,
+                           @Value("${timeline.max-buckets:20}") int maxBuckets,
+                           @Value("${timeline.fanout.max-followers:10000}") long fanoutMaxFollowers,
+                           @Value("${timeline.fanout.batch-size:500}") int fanoutBatchSize,
+                           @Value("${timeline.pull.max-followees:2000}") int pullMaxFollowees,
+                           @Value("${timeline.pull.large-followees-ttl:1m}") Duration largeFolloweesTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.postService = postService;
+        this.bucketSize = bucketSize;
+        this.maxBuckets = maxBuckets;
+        this.fanoutMaxFollowers = fanoutMaxFollowers;
+        this.fanoutBatchSize = fanoutBatchSize;
+        this.pullMaxFollowees = pullMaxFollowees;
+        this.largeFollowees = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(largeFolloweesTtl)
+            .build();
+    }
+
+    @Async("timelineExecutor")
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        TimelineBucket.Entry entry = new TimelineBucket.Entry();
+        entry.setPostId(event.postId());
+        entry.setAuthorId(event.authorId());
+        entry.setCreatedAt(event.createdAt());
+
+        push(List.of(event.authorId()), entry);
+        if (followerCount(event.authorId()) > fanoutMaxFollowers) {
+            log.debug("Post {} by large account {} is read on demand", event.postId(), event.authorId());
+            return;
+        }
+
+        // Followers are walked in _id order so the batches never overlap
+        int delivered = 0;
+        String lastEdgeId = null;
+        while (true) {
+            Criteria criteria = Criteria.where("followeeId").is(event.authorId());
+            if (lastEdgeId != null) {
+                criteria = criteria.and("_id").gt(new ObjectId(lastEdgeId));
+            }
+            Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(fanoutBatchSize);
+            query.fields().include("followerId");
+            List<FollowEdge> edges = mongoTemplate.find(query, FollowEdge.class);
+            if (edges.isEmpty()) {
+                break;
+            }
+
+            push(edges.stream().map(FollowEdge::getFollowerId).toList(), entry);
+            delivered += edges.size();
+            if (edges.size() < fanoutBatchSize) {
+                break;
+            }
+            lastEdgeId = edges.get(edges.size() - 1).getId();
+        }
+        log.debug("Fanned out post {} to {} followers", event.postId(), delivered);
+    }
+
+    /**
+     * One page of the user's home timeline, newest first. Pages walk the stored buckets;
+     * a page covers one bucket's time range unless large accounts posted more than a page
+     * in it, in which case the range is split over several pages by createdAt.
+     */
+    public CursorPage<PostView> getHomeTimeline(String userId, String cursor) {
+        // The cursor is the createdAt to continue before and the bucket to continue from,
+        // this one or the newest older one; without a bucket id the buckets are used up
+        PageCursor position = PageCursor.decode(cursor);
+        LocalDateTime before = position == null ? null : position.dateValue();
+        if (position != null && !position.hasId()) {
+            return pulledPage(userId, before);
+        }
+
+        Criteria criteria = Criteria.where("ownerId").is(userId);
+        if (position != null) {
+            criteria = criteria.and("_id").lte(position.objectId());
+        }
+        TimelineBucket bucket = newestBucket(criteria);
+        while (bucket != null && !bucket.getEntries().isEmpty()) {
+            CursorPage<PostView> page = bucketPage(userId, bucket, before);
+            if (page != null) {
+                return page;
+            }
+            // Everything in this bucket's range has been shown
+            bucket = newestBucket(Criteria.where("ownerId").is(userId).and("_id").lt(new ObjectId(bucket.getId())));
+        }
+        return pulledPage(userId, before);
+    }
+
+    private TimelineBucket newestBucket(Criteria criteria) {
+        return mongoTemplate.findOne(new Query(criteria).with(Sort.by(Sort.Direction.DESC, "_id")).limit(1),
+            TimelineBucket.class);
+    }
+
+    /**
+     * The newest page of the bucket's time range older than {@code before}, with large
+     * accounts' posts from the same range interleaved; {@code null} once the range is used up.
+     */
+    private CursorPage<PostView> bucketPage(String userId, TimelineBucket bucket, LocalDateTime before) {
+        LocalDateTime oldest = bucket.getEntries().stream()
+            .map(TimelineBucket.Entry::getCreatedAt)
+            .min(Comparator.naturalOrder())
+            .orElseThrow();
+        if (before != null && !before.isAfter(oldest)) {
+            return null;
+        }
+
+        Map<String, Post> posts = new LinkedHashMap<>();
+        List<String> postIds = bucket.getEntries().stream()
+            .filter(entry -> before == null || entry.getCreatedAt().isBefore(before))
+            .map(TimelineBucket.Entry::getPostId)
+            .toList();
+        for (Post post : postService.findPosts(postIds)) {
+            posts.put(post.getId(), post);
+        }
+        List<String> large = largeFollowees.get(userId, this::findLargeFollowees);
+        if (!large.isEmpty()) {
+            Criteria range = Criteria.where("createdAt").gte(oldest);
+            if (before != null) {
+                range = range.lt(before);
+            }
+            // One more than a page tells whether the range needs another page
+            Query query = new Query(Criteria.where("userId").in(large).andOperator(range))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(bucketSize + 1);
+            for (Post post : mongoTemplate.find(query, Post.class)) {
+                posts.putIfAbsent(post.getId(), post);
+            }
+        }
+        if (posts.isEmpty()) {
+            return null;
+        }
+
+        List<Post> ordered = new ArrayList<>(posts.values());
+        ordered.sort(Comparator.comparing(Post::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        LocalDateTime next = oldest;
+        if (ordered.size() > bucketSize) {
+            ordered = ordered.subList(0, bucketSize);
+            next = ordered.get(bucketSize - 1).getCreatedAt();
+        }
+        return new CursorPage<>(postService.toViews(ordered, userId), PageCursor.encode(next, bucket.getId()));
+    }
+
+    private CursorPage<PostView> pulledPage(String userId, LocalDateTime before) {
+        List<String> authors = new ArrayList<>(findFollowees(userId));
+        authors.add(userId);
+
+        Criteria criteria = Criteria.where("userId").in(authors);
+        if (before != null) {
+            criteria = criteria.and("createdAt").lt(before);
+        }
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+            .limit(bucketSize + 1);
+        List<Post> posts = mongoTemplate.find(query, Post.class);
+
+        String nextCursor = null;
+        if (posts.size() > bucketSize) {
+            posts = posts.subList(0, bucketSize);
+            nextCursor = PageCursor.encode(posts.get(bucketSize - 1).getCreatedAt(), null);
+        }
+        return new CursorPage<>(postService.toViews(posts, userId), nextCursor);
+    }
+
+    // Bulk-pushes the entry into each owner's open bucket, starting a new bucket when full
+    private void push(List<String> ownerIds, TimelineBucket.Entry entry) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineBucket.class);
+        Update update = new Update()
+            .push("entries").atPosition(Update.Position.FIRST).each(entry)
+            .inc("count", 1)
+            .max("newest", entry.getCreatedAt());
+        for (String ownerId : ownerIds) {
+            bulk.upsert(new Query(Criteria.where("ownerId").is(ownerId).and("count").lt(bucketSize)), update);
+        }
+        BulkWriteResult result = bulk.execute();
+
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            trim(ownerIds.get(upsert.getIndex()));
+        }
+    }
+
+    // Old buckets are dropped once an owner has more than max-buckets; older pages are pulled
+    private void trim(String ownerId) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId))
+            .with(Sort.by(Sort.Direction.DESC, "_id"))
+            .skip(maxBuckets);
+        query.fields().include("_id");
+        List<String> stale = mongoTemplate.find(query, TimelineBucket.class).stream()
+            .map(TimelineBucket::getId)
+            .toList();
+        if (!stale.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(stale)), TimelineBucket.class);
+        }
+    }
+
+    private long followerCount(String userId) {
+        Query query = new Query(Criteria.where("_id").is(userId));
+        query.fields().include("followerCount");
+        User user = mongoTemplate.findOne(query, User.class);
+        return user == null ? 0 : user.getFollowerCount();
+    }
+
+    // Most recently followed accounts first, capped so one query stays bounded
+    private List<String> findFollowees(String userId) {
+        Query query = new Query(Criteria.where("followerId").is(userId))
+            .with(Sort.by(Sort.Direction.DESC, "_id"))
+            .limit(pullMaxFollowees);
+        query.fields().include("followeeId");
+        return mongoTemplate.find(query, FollowEdge.class).stream()
+            .map(FollowEdge::getFolloweeId)
+            .toList();
+    }
+
+    private List<String> findLargeFollowees(String userId) {
+        List<String> followees = findFollowees(userId);
+        if (followees.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(followees).and("followerCount").gt(fanoutMaxFollowers));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, User.class).stream()
+            .map(User::getId)
+            .toList();
+    }
+}
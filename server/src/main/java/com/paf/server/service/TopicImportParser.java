@@ -0,0 +1,167 @@
+package com.paf.server.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paf.server.model.LearningPlan;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads topics from an uploaded JSON or CSV document one record at a time, so large imports
+ * are never materialised as a tree or a full string.
+ *
+ * <p>JSON: an array of {@code {title, description, resources}} objects, or an object with
+ * such an array under {@code topics}. CSV: columns {@code title,description,resources} with
+ * an optional header row and resources separated by {@code ;}.
+ */
+@Component
+public class TopicImportParser {
+
+    public enum Format {
+        JSON,
+        CSV;
+
+        public static Format detect(String filename, String contentType) {
+            String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv") || (contentType != null && contentType.contains("csv"))) {
+                return CSV;
+            }
+            if (name.endsWith(".json") || (contentType != null && contentType.contains("json"))) {
+                return JSON;
+            }
+            throw new IllegalArgumentException("Topics can only be imported from JSON or CSV files");
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public TopicImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<LearningPlan.PlanTopic> parse(InputStream input, Format format, int maxTopics) throws IOException {
+        return format == Format.CSV ? parseCsv(input, maxTopics) : parseJson(input, maxTopics);
+    }
+
+    private List<LearningPlan.PlanTopic> parseJson(InputStream input, int maxTopics) throws IOException {
+        List<LearningPlan.PlanTopic> topics = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME && !"topics".equals(parser.currentName())) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                token = token == JsonToken.FIELD_NAME ? parser.nextToken() : null;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of topics");
+            }
+
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    // Rejected rather than skipped, so an import never silently stops part way
+                    JsonLocation location = parser.currentTokenLocation();
+                    throw new IllegalArgumentException("Topic " + (topics.size() + 1) + " at line " + location.getLineNr()
+                        + ", column " + location.getColumnNr() + " is not a JSON object");
+                }
+                JsonNode node = parser.readValueAsTree();
+                List<String> resources = new ArrayList<>();
+                node.path("resources").forEach(resource -> resources.add(resource.asText()));
+                addTopic(topics, maxTopics, node.path("title").asText(null), node.path("description").asText(null), resources);
+            }
+        }
+        return topics;
+    }
+
+    private List<LearningPlan.PlanTopic> parseCsv(InputStream input, int maxTopics) throws IOException {
+        List<LearningPlan.PlanTopic> topics = new ArrayList<>();
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            boolean first = true;
+            List<String> row;
+            while ((row = readCsvRow(reader)) != null) {
+                if (first && !row.isEmpty() && "title".equalsIgnoreCase(row.get(0).trim())) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (row.size() == 1 && row.get(0).isBlank()) {
+                    continue;
+                }
+
+                List<String> resources = row.size() > 2
+                    ? Arrays.stream(row.get(2).split(";")).map(String::trim).filter(value -> !value.isEmpty()).toList()
+                    : List.of();
+                addTopic(topics, maxTopics, row.get(0), row.size() > 1 ? row.get(1) : null, resources);
+            }
+        }
+        return topics;
+    }
+
+    // RFC 4180 row: comma separated, fields optionally quoted, "" escapes a quote inside quotes
+    private static List<String> readCsvRow(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAny = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            sawAny = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!sawAny) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void addTopic(List<LearningPlan.PlanTopic> topics, int maxTopics,
+                                 String title, String description, List<String> resources) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("Topic " + (topics.size() + 1) + " has no title");
+        }
+        if (topics.size() >= maxTopics) {
+            throw new IllegalArgumentException("A plan can hold at most " + maxTopics + " topics");
+        }
+        LearningPlan.PlanTopic topic = new LearningPlan.PlanTopic();
+        topic.setTitle(title.trim());
+        topic.setDescription(description == null || description.isBlank() ? null : description.trim());
+        topic.setResources(new ArrayList<>(resources));
+        topics.add(topic);
+    }
+}
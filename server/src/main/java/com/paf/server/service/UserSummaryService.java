@@ -0,0 +1,72 @@
+package com.paf.server.service;
+
+import com.paf.server.config.CacheConfig;
+import com.paf.server.model.UserSummary;
+import com.paf.server.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves user ids to {@link UserSummary} views, batching misses into a single $in query.
+ * Summaries are kept in the {@link CacheConfig#USER_SUMMARIES} cache, which
+ * {@link EntityCacheService#evictUser} clears together with the user document.
+ */
+@Service
+public class UserSummaryService {
+
+    private final UserRepository userRepository;
+    private final Cache cache;
+
+    public UserSummaryService(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cache = cacheManager.getCache(CacheConfig.USER_SUMMARIES);
+    }
+
+    /**
+     * @return summaries in the order of the requested ids; unknown ids are skipped
+     */
+    public List<UserSummary> getSummaries(Collection<String> userIds) {
+        Set<String> ids = new LinkedHashSet<>(userIds);
+        Map<String, UserSummary> found = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        for (String id : ids) {
+            UserSummary cached = cache.get(id, UserSummary.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (UserSummary summary : userRepository.findByIdIn(misses)) {
+                cache.put(summary.id(), summary);
+                found.put(summary.id(), summary);
+            }
+        }
+
+        List<UserSummary> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            UserSummary summary = found.get(id);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    public Optional<UserSummary> getSummary(String userId) {
+        return getSummaries(List.of(userId)).stream().findFirst();
+    }
+}
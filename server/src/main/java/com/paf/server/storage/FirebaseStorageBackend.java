@@ -0,0 +1,110 @@
+package com.paf.server.storage;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.paf.server.config.FileStorageProperties;
+import com.paf.server.config.FirebaseConfig;
+import com.paf.server.config.UploadProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Objects in the Firebase Storage bucket. Content is copied from the request stream
+ * through one fixed buffer into a resumable-upload write channel, so memory per upload is
+ * bounded by {@code upload.buffer-size} whatever the file size. Clients download through
+ * signed URLs.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "firebase", matchIfMissing = true)
+public class FirebaseStorageBackend implements StorageBackend {
+
+    private static final int CHUNK_GRANULARITY = 256 * 1024;
+
+    private final FirebaseConfig firebaseConfig;
+    private final String bucketName;
+    private final int bufferSize;
+
+    public FirebaseStorageBackend(FirebaseConfig firebaseConfig,
+                                  FileStorageProperties fileStorageProperties,
+                                  UploadProperties uploadProperties) {
+        this.firebaseConfig = firebaseConfig;
+        this.bucketName = fileStorageProperties.getBucketName();
+        if (bucketName == null || bucketName.isEmpty()) {
+            throw new IllegalArgumentException("Bucket name is not specified in FileStorageProperties");
+        }
+
+        long requested = Math.max(uploadProperties.getBufferSize().toBytes(), CHUNK_GRANULARITY);
+        this.bufferSize = (int) (((requested + CHUNK_GRANULARITY - 1) / CHUNK_GRANULARITY) * CHUNK_GRANULARITY);
+        log.info("File storage initialized with bucket: {}, upload buffer: {} bytes", bucketName, bufferSize);
+    }
+
+    @Override
+    public long write(String objectName, InputStream content, String contentType) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(bucketName, objectName).setContentType(contentType).build();
+
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        long written = 0;
+        try (ReadableByteChannel source = Channels.newChannel(content);
+             WriteChannel target = storage().writer(blobInfo)) {
+            target.setChunkSize(bufferSize);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        log.info("Stored {} ({} bytes) in bucket {}", objectName, written, bucketName);
+        return written;
+    }
+
+    @Override
+    public InputStream open(String objectName) {
+        ReadChannel reader = storage().reader(BlobId.of(bucketName, objectName));
+        reader.setChunkSize(bufferSize);
+        return Channels.newInputStream(reader);
+    }
+
+    // Name-only metadata read; nothing else about the blob is needed
+    @Override
+    public boolean exists(String objectName) {
+        return storage().get(BlobId.of(bucketName, objectName), Storage.BlobGetOption.fields(Storage.BlobField.NAME)) != null;
+    }
+
+    @Override
+    public void delete(Collection<String> objectNames) {
+        if (objectNames.isEmpty()) {
+            return;
+        }
+        List<BlobId> blobs = objectNames.stream().map(name -> BlobId.of(bucketName, name)).toList();
+        storage().delete(blobs);
+    }
+
+    // Signing only needs bucket and name, so no metadata fetch is involved
+    @Override
+    public String url(String objectName, Duration validity) {
+        return storage().signUrl(BlobInfo.newBuilder(bucketName, objectName).build(), validity.toMillis(), TimeUnit.MILLISECONDS)
+            .toString();
+    }
+
+    // Waits for background initialization if it has not finished yet
+    private Storage storage() {
+        return firebaseConfig.getStorage();
+    }
+}
@@ -0,0 +1,113 @@
+package com.paf.server.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Objects as files under {@code storage.local.root}. Writes go to a temporary file in the
+ * target directory and are moved into place atomically, so readers never see a partial
+ * object. Downloads go through {@code /api/files/content}, which serves the file with
+ * sendfile where the connector supports it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalStorageBackend(@Value("${storage.local.root:${file.upload-dir:uploads/}}") String root,
+                               @Value("${storage.local.public-base-url:http://localhost:8081}") String publicBaseUrl)
+            throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        Files.createDirectories(this.root);
+        log.info("Local file storage initialized at {}", this.root);
+    }
+
+    @Override
+    public long write(String objectName, InputStream content, String contentType) throws IOException {
+        Path target = resolve(objectName);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".part");
+        try {
+            long written = 0;
+            try (ReadableByteChannel source = Channels.newChannel(content);
+                 FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = channel.transferFrom(source, written, TRANSFER_CHUNK)) > 0) {
+                    written += transferred;
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Stored {} ({} bytes) in {}", objectName, written, root);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream open(String objectName) throws IOException {
+        return Files.newInputStream(resolve(objectName));
+    }
+
+    @Override
+    public boolean exists(String objectName) {
+        return Files.isRegularFile(resolve(objectName));
+    }
+
+    @Override
+    public void delete(Collection<String> objectNames) {
+        for (String objectName : objectNames) {
+            try {
+                Files.deleteIfExists(resolve(objectName));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to delete " + objectName, ex);
+            }
+        }
+    }
+
+    // Local URLs never expire; access control is the content endpoint's
+    @Override
+    public String url(String objectName, Duration validity) {
+        return publicBaseUrl + "/api/files/content?name=" + URLEncoder.encode(objectName, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Optional<Path> localPath(String objectName) {
+        Path path = resolve(objectName);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // Object names come from clients, so anything resolving outside the root is refused
+    private Path resolve(String objectName) {
+        Path path = root.resolve(objectName).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object name");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,46 @@
+package com.paf.server.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Where uploaded objects live. Exactly one implementation is active, chosen by
+ * {@code storage.backend} ({@code firebase} or {@code local}). Object names may contain
+ * {@code /} to group derived objects such as renditions.
+ */
+public interface StorageBackend {
+
+    /**
+     * Streams the content into the named object, replacing it if it exists.
+     *
+     * @return bytes written
+     */
+    long write(String objectName, InputStream content, String contentType) throws IOException;
+
+    InputStream open(String objectName) throws IOException;
+
+    boolean exists(String objectName);
+
+    /**
+     * Deletes the objects in one batch where the backend supports it; names that do not
+     * exist are ignored.
+     */
+    void delete(Collection<String> objectNames);
+
+    /**
+     * A URL clients can download the object from, valid for at least {@code validity}.
+     */
+    String url(String objectName, Duration validity);
+
+    /**
+     * The file behind an object, for backends that keep objects on the local filesystem
+     * and can serve them without copying through the JVM.
+     */
+    default Optional<Path> localPath(String objectName) {
+        return Optional.empty();
+    }
+}
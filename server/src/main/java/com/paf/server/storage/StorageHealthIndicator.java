@@ -0,0 +1,41 @@
+package com.paf.server.storage;
+
+import com.paf.server.config.FirebaseConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports whether the storage backend can take requests. It is part of the readiness group,
+ * so while Firebase initializes in the background the node is live but receives no traffic.
+ */
+@Component("storage")
+public class StorageHealthIndicator implements HealthIndicator {
+
+    private final ObjectProvider<FirebaseConfig> firebaseConfig;
+    private final String backend;
+
+    public StorageHealthIndicator(ObjectProvider<FirebaseConfig> firebaseConfig,
+                                  @Value("${storage.backend:firebase}") String backend) {
+        this.firebaseConfig = firebaseConfig;
+        this.backend = backend;
+    }
+
+    @Override
+    public Health health() {
+        FirebaseConfig firebase = firebaseConfig.getIfAvailable();
+        if (firebase == null) {
+            return Health.up().withDetail("backend", backend).build();
+        }
+        if (firebase.isReady()) {
+            return Health.up().withDetail("backend", backend).build();
+        }
+        Throwable failure = firebase.failure();
+        if (failure != null) {
+            return Health.down(failure).withDetail("backend", backend).build();
+        }
+        return Health.outOfService().withDetail("backend", backend).withDetail("state", "initializing").build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.paf.server.controller;
+
+import com.paf.server.storage.LocalStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileContentControllerTest {
+
+    private static final String NAME = "notes.txt";
+    private static final String BODY = "0123456789";
+
+    @TempDir
+    Path root;
+
+    private MockMvc mockMvc;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalStorageBackend backend = new LocalStorageBackend(root.toString(), "http://localhost");
+        backend.write(NAME, new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)), "text/plain");
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileContentController(backend)).build();
+        etag = mockMvc.perform(get("/api/files/content").param("name", NAME))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void servesWholeFileWithValidators() throws Exception {
+        mockMvc.perform(get("/api/files/content").param("name", NAME))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        mockMvc.perform(get("/api/files/content").param("name", NAME).header(HttpHeaders.RANGE, "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+            .andExpect(content().string("2345"));
+
+        mockMvc.perform(get("/api/files/content").param("name", NAME).header(HttpHeaders.RANGE, "bytes=-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+            .andExpect(content().string("789"));
+
+        mockMvc.perform(get("/api/files/content").param("name", NAME).header(HttpHeaders.RANGE, "bytes=8-99999999999999999999"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-9/10"))
+            .andExpect(content().string("89"));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRangesWith416() throws Exception {
+        for (String range : new String[] {"bytes=10-", "bytes=99999999999999999999-"}) {
+            mockMvc.perform(get("/api/files/content").param("name", NAME).header(HttpHeaders.RANGE, range))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        }
+    }
+
+    @Test
+    void answersMatchingEtagWith304() throws Exception {
+        mockMvc.perform(get("/api/files/content").param("name", NAME).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeIsStale() throws Exception {
+        mockMvc.perform(get("/api/files/content").param("name", NAME)
+                .header(HttpHeaders.RANGE, "bytes=2-5")
+                .header(HttpHeaders.IF_RANGE, "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void answersMissingAndInvalidNames() throws Exception {
+        mockMvc.perform(get("/api/files/content").param("name", "missing.txt"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/files/content").param("name", "../outside.txt"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,63 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FollowGraphMigrationTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> migrations = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> users = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final FindIterable<Document> markers = mock(FindIterable.class);
+    @SuppressWarnings("unchecked")
+    private final FindIterable<Document> legacyUsers = mock(FindIterable.class);
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollection("migrations")).thenReturn(migrations);
+        when(mongoTemplate.getCollection("users")).thenReturn(users);
+        when(mongoTemplate.getCollection("follows")).thenReturn(mock(MongoCollection.class));
+        when(migrations.find(any(Bson.class))).thenReturn(markers);
+        when(users.find(any(Bson.class))).thenReturn(legacyUsers);
+        when(legacyUsers.projection(any(Bson.class))).thenReturn(legacyUsers);
+        when(legacyUsers.batchSize(anyInt())).thenReturn(legacyUsers);
+    }
+
+    @Test
+    void skipsTheUserScanOnceMarkerIsPresent() {
+        when(markers.first()).thenReturn(new Document("_id", "follow-graph"));
+
+        new FollowGraphMigration(mongoTemplate, true).run(new DefaultApplicationArguments());
+
+        verify(users, never()).find(any(Bson.class));
+    }
+
+    @Test
+    void writesMarkerWhenNoEmbeddedArraysAreLeft() {
+        @SuppressWarnings("unchecked")
+        MongoCursor<Document> empty = mock(MongoCursor.class);
+        when(legacyUsers.iterator()).thenReturn(empty);
+
+        new FollowGraphMigration(mongoTemplate, true).run(new DefaultApplicationArguments());
+
+        verify(migrations).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+    }
+}
@@ -0,0 +1,63 @@
+package com.paf.server.migration;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LearningActivityMigrationTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> migrations = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> plans = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final FindIterable<Document> markers = mock(FindIterable.class);
+    @SuppressWarnings("unchecked")
+    private final AggregateIterable<Document> aggregation = mock(AggregateIterable.class);
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollection("migrations")).thenReturn(migrations);
+        when(mongoTemplate.getCollection("learning_plans")).thenReturn(plans);
+        when(migrations.find(any(Bson.class))).thenReturn(markers);
+        when(plans.aggregate(anyList())).thenReturn(aggregation);
+        when(aggregation.allowDiskUse(true)).thenReturn(aggregation);
+    }
+
+    @Test
+    void backfillsAndWritesMarkerEvenWhenActivityAlreadyExists() {
+        when(markers.first()).thenReturn(null);
+
+        new LearningActivityMigration(mongoTemplate, true).run(new DefaultApplicationArguments());
+
+        verify(aggregation).toCollection();
+        verify(migrations).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+        verify(mongoTemplate, never()).getCollection("learning_activity");
+    }
+
+    @Test
+    void skipsOnceMarkerIsPresent() {
+        when(markers.first()).thenReturn(new Document("_id", "learning-activity-backfill"));
+
+        new LearningActivityMigration(mongoTemplate, true).run(new DefaultApplicationArguments());
+
+        verify(plans, never()).aggregate(anyList());
+        verify(aggregation, never()).toCollection();
+        verify(migrations, never()).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+    }
+}
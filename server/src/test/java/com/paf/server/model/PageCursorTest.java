@@ -0,0 +1,42 @@
+package com.paf.server.model;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsValueAndId() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 9, 30, 15);
+        String id = new ObjectId().toHexString();
+
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(createdAt, id));
+
+        assertThat(cursor.dateValue()).isEqualTo(createdAt);
+        assertThat(cursor.objectId().toHexString()).isEqualTo(id);
+    }
+
+    @Test
+    void keepsNullValuesAndIdsDistinguishable() {
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(null, "abc"));
+        assertThat(cursor.hasValue()).isFalse();
+        assertThat(cursor.requiredId()).isEqualTo("abc");
+
+        assertThat(PageCursor.decode(PageCursor.encode(12, null)).hasId()).isFalse();
+        assertThat(PageCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> PageCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(PageCursor.encode("soon", "abc")).dateValue())
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode(PageCursor.encode(3, null)).requiredId())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.paf.server.service;
+
+import com.paf.server.model.Community;
+import com.paf.server.model.CommunitySummary;
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.PageCursor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ExecutableFindOperation.ExecutableFind;
+import org.springframework.data.mongodb.core.ExecutableFindOperation.FindWithQuery;
+import org.springframework.data.mongodb.core.ExecutableFindOperation.TerminatingFind;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommunityDirectoryServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final CommunityDirectoryService service = new CommunityDirectoryService(mongoTemplate);
+    @SuppressWarnings("unchecked")
+    private final FindWithQuery<CommunitySummary> find = mock(FindWithQuery.class);
+    @SuppressWarnings("unchecked")
+    private final TerminatingFind<CommunitySummary> results = mock(TerminatingFind.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ExecutableFind<Community> communities = mock(ExecutableFind.class);
+        when(mongoTemplate.query(Community.class)).thenReturn(communities);
+        when(communities.as(CommunitySummary.class)).thenReturn(find);
+        when(find.matching(any(Query.class))).thenReturn(results);
+    }
+
+    @Test
+    void userCommunitiesArePagedByKeysetInsteadOfSkip() {
+        LocalDateTime now = LocalDateTime.of(2026, 10, 1, 12, 0);
+        CommunitySummary first = summary(new ObjectId().toHexString(), now);
+        CommunitySummary second = summary(new ObjectId().toHexString(), now.minusHours(1));
+        when(results.all()).thenReturn(List.of(first, second, summary(new ObjectId().toHexString(), now.minusHours(2))));
+        String lastId = new ObjectId().toHexString();
+
+        CursorPage<CommunitySummary> page = service.getUserCommunities("user",
+            PageCursor.encode(now.plusHours(1), lastId), 2);
+
+        assertThat(page.items()).containsExactly(first, second);
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(new PageCursor(second.lastMessageTime().toString(), second.id()));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(find).matching(query.capture());
+        assertThat(query.getValue().getSkip()).isZero();
+        assertThat(query.getValue().getLimit()).isEqualTo(3);
+        List<Document> clauses = query.getValue().getQueryObject().getList("$and", Document.class);
+        assertThat(clauses).hasSize(2);
+        assertThat(clauses.get(0)).containsKey("$or");
+        assertThat(clauses.get(1).getList("$or", Document.class)).hasSize(3);
+    }
+
+    private static CommunitySummary summary(String id, LocalDateTime lastMessageTime) {
+        return new CommunitySummary(id, "name", null, List.of(), 1, null, lastMessageTime);
+    }
+}
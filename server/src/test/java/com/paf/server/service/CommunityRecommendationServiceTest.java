@@ -0,0 +1,62 @@
+package com.paf.server.service;
+
+import com.paf.server.event.CommunityChangedEvent;
+import com.paf.server.model.Community;
+import com.paf.server.model.CommunityRecommendation;
+import com.paf.server.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommunityRecommendationServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final CommunityRecommendationService service = new CommunityRecommendationService(mongoTemplate, 168, 0.25);
+
+    @Test
+    void keepsChangesThatArriveWhileTheIndexIsRebuilt() {
+        Community chess = community("chess", 10);
+        Community go = community("go", 3);
+        // The rebuild reads the stale member count, then a join lands before the swap
+        when(mongoTemplate.stream(any(Query.class), eq(Community.class))).thenAnswer(invocation ->
+            Stream.of(chess, go).peek(community -> {
+                if (community == go) {
+                    service.onCommunityChanged(CommunityChangedEvent.membersChanged("chess", 1));
+                }
+            }));
+        when(mongoTemplate.find(any(Query.class), eq(Community.class))).thenReturn(List.of(community("chess", 11)));
+
+        service.rebuild();
+
+        assertThat(service.recommend(reader(), 10))
+            .extracting(CommunityRecommendation::id, CommunityRecommendation::memberCount)
+            .contains(tuple("chess", 11));
+    }
+
+    private static Community community(String id, int memberCount) {
+        Community community = new Community();
+        community.setId(id);
+        community.setName(id);
+        community.setMemberCount(memberCount);
+        community.setTags(List.of("games"));
+        community.setCreatedAt(LocalDateTime.now());
+        return community;
+    }
+
+    private static User reader() {
+        User user = new User();
+        user.setInterests(List.of("games"));
+        return user;
+    }
+}
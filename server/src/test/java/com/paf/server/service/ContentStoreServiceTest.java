@@ -0,0 +1,121 @@
+package com.paf.server.service;
+
+import com.paf.server.model.StoredFile;
+import com.paf.server.storage.StorageBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContentStoreServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final StorageBackend storageBackend = mock(StorageBackend.class);
+    private final ContentStoreService service = new ContentStoreService(
+        storageBackend, mock(SignedUrlService.class), mongoTemplate, Duration.ofHours(1));
+
+    @Test
+    void releaseIsRejectedForUsersWithoutTheirOwnReference() {
+        when(mongoTemplate.findOne(any(Query.class), eq(StoredFile.class))).thenReturn(entry(Map.of("owner", 1L)));
+
+        assertThat(service.release("abc.png", "other")).isEqualTo(ContentStoreService.ReleaseResult.FORBIDDEN);
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(UpdateDefinition.class),
+            any(FindAndModifyOptions.class), eq(StoredFile.class));
+    }
+
+    @Test
+    void releaseDecrementsOnlyTheCallersOwnCount() {
+        when(mongoTemplate.findOne(any(Query.class), eq(StoredFile.class))).thenReturn(entry(Map.of("owner", 1L)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(StoredFile.class)))
+            .thenReturn(entry(Map.of("owner", 0L)))
+            .thenReturn(null);
+
+        assertThat(service.release("abc.png", "owner")).isEqualTo(ContentStoreService.ReleaseResult.RELEASED);
+        // The second call loses the guard, as a repeated DELETE by the same user would
+        assertThat(service.release("abc.png", "owner")).isEqualTo(ContentStoreService.ReleaseResult.NOT_FOUND);
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(2)).findAndModify(guard.capture(), update.capture(),
+            any(FindAndModifyOptions.class), eq(StoredFile.class));
+        assertThat(guard.getValue().getQueryObject().get("refs.owner")).isEqualTo(new Document("$gt", 0));
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class))
+            .containsEntry("refs.owner", -1)
+            .containsEntry("refCount", -1);
+    }
+
+    @Test
+    void storeFailsFastInsteadOfRevivingAClaimedEntry() throws IOException {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(StoredFile.class)))
+            .thenThrow(new DuplicateKeyException("claimed"));
+
+        assertThatThrownBy(() -> service.store(new ByteArrayResource("image".getBytes(StandardCharsets.UTF_8)),
+                "photo.png", "image/png", "owner"))
+            .isInstanceOf(ContentStoreService.ContentBusyException.class);
+
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(filter.capture(), any(UpdateDefinition.class),
+            any(FindAndModifyOptions.class), eq(StoredFile.class));
+        assertThat(filter.getValue().getQueryObject().get("status"))
+            .isEqualTo(new Document("$ne", StoredFile.Status.DELETING));
+        verify(storageBackend, never()).write(any(), any(), any());
+    }
+
+    @Test
+    void failedWriteTakesTheReferenceBack() throws IOException {
+        StoredFile pending = entry(Map.of("owner", 1L));
+        pending.setStatus(StoredFile.Status.PENDING);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(StoredFile.class)))
+            .thenReturn(pending)
+            .thenReturn(entry(Map.of("owner", 0L)));
+        when(storageBackend.write(any(), any(), any())).thenThrow(new IOException("bucket unavailable"));
+
+        assertThatThrownBy(() -> service.store(new ByteArrayResource("image".getBytes(StandardCharsets.UTF_8)),
+                "photo.png", "image/png", "owner"))
+            .isInstanceOf(IOException.class)
+            .hasMessage("bucket unavailable");
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(2)).findAndModify(guard.capture(), update.capture(),
+            any(FindAndModifyOptions.class), eq(StoredFile.class));
+        assertThat(guard.getValue().getQueryObject().get("refs.owner")).isEqualTo(new Document("$gt", 0));
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class))
+            .containsEntry("refs.owner", -1)
+            .containsEntry("refCount", -1);
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class)).containsKey("releasedAt");
+    }
+
+    private static StoredFile entry(Map<String, Long> refs) {
+        StoredFile file = new StoredFile();
+        file.setId("abc");
+        file.setObjectName("abc.png");
+        file.setRefs(new HashMap<>(refs));
+        file.setRefCount(refs.values().stream().mapToLong(Long::longValue).sum());
+        return file;
+    }
+}
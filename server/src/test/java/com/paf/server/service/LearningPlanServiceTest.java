@@ -0,0 +1,57 @@
+package com.paf.server.service;
+
+import com.paf.server.model.LearningPlan;
+import com.paf.server.model.User;
+import com.paf.server.repository.LearningPlanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LearningPlanServiceTest {
+
+    private final LearningPlanRepository repository = mock(LearningPlanRepository.class);
+    private final EntityCacheService entityCacheService = mock(EntityCacheService.class);
+    private final LearningPlanService service = new LearningPlanService(repository, mock(MongoTemplate.class),
+        entityCacheService, mock(ApplicationEventPublisher.class), mock(LearningActivityService.class), 5000);
+
+    @Test
+    void createIgnoresServerOwnedFieldsFromTheRequest() {
+        User user = new User();
+        user.setId("user");
+        when(entityCacheService.findUserByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(repository.insert(any(LearningPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        LearningPlan.PlanTopic done = new LearningPlan.PlanTopic();
+        done.setCompleted(true);
+        LearningPlan request = new LearningPlan();
+        request.setId("chosen-by-client");
+        request.setVersion(7L);
+        request.setCompletedTopics(40);
+        request.setTotalTopics(40);
+        request.setProgress(100);
+        request.setCompletedAt(LocalDateTime.of(2020, 1, 1, 0, 0));
+        request.setTopics(List.of(done, new LearningPlan.PlanTopic()));
+
+        LearningPlan created = service.createPlan(request, "user@example.com");
+
+        assertThat(created.getId()).isNotEqualTo("chosen-by-client");
+        assertThat(created.getVersion()).isNull();
+        assertThat(created.getUserId()).isEqualTo("user");
+        assertThat(created.getCompletedTopics()).isEqualTo(1);
+        assertThat(created.getTotalTopics()).isEqualTo(2);
+        assertThat(created.getProgress()).isEqualTo(50);
+        assertThat(created.getCompletedAt()).isNull();
+        verify(repository, never()).save(any(LearningPlan.class));
+    }
+}
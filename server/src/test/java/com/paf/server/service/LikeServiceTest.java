@@ -0,0 +1,138 @@
+package com.paf.server.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.paf.server.model.LikeEdge;
+import com.paf.server.model.LikeEdge.EntityType;
+import com.paf.server.model.Post;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final LikeService likeService = new LikeService(mongoTemplate, Duration.ZERO);
+
+    @Test
+    void batchesDeltasUntilFlushAndKeepsThemWhenTheWriteFails() {
+        when(mongoTemplate.insert(any(LikeEdge.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        likeService.toggle(EntityType.POST, "post", null, "a");
+        likeService.toggle(EntityType.POST, "post", null, "b");
+        assertThat(likeService.likeCount(EntityType.POST, "post", 10)).isEqualTo(12);
+
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new IllegalStateException("primary stepped down"));
+        likeService.flush();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class)).containsEntry("likeCount", 2L);
+        // Requeued for the next flush, so the likers still see their likes
+        assertThat(likeService.likeCount(EntityType.POST, "post", 10)).isEqualTo(12);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recountCorrectsOnlyTotalsThatStillDifferAfterSettling() {
+        // p1 and p2 have lost deltas; p3 is one like ahead of its total until another node flushes
+        MongoCollection<Document> posts = collection("posts",
+            List.of(post("p1", 5L), post("p2", 2), post("p3", 4)),
+            List.of(post("p1", 5L), post("p2", 2), post("p3", 5)));
+        collection("comments", List.of(), List.of());
+        edgeCounts(List.of(count("p1", 3), count("p3", 5)));
+        when(posts.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        likeService.recount();
+
+        ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass(List.class);
+        verify(posts, times(1)).bulkWrite(writes.capture(), any(BulkWriteOptions.class));
+        assertThat(writes.getValue()).hasSize(2);
+        UpdateOneModel<Document> first = (UpdateOneModel<Document>) writes.getValue().get(0);
+        UpdateOneModel<Document> second = (UpdateOneModel<Document>) writes.getValue().get(1);
+        // Guarded on the total read in the second pass, so a flush landing meanwhile is kept
+        assertThat(first.getFilter().toString()).contains("p1", "likeCount", "5");
+        assertThat(first.getUpdate().toString()).contains("likeCount", "3");
+        assertThat(second.getFilter().toString()).contains("p2");
+        assertThat(second.getUpdate().toString()).contains("likeCount", "0");
+    }
+
+    @Test
+    void recountLeavesTotalsAloneWhenTheDifferenceWasAnUnflushedDelta() {
+        MongoCollection<Document> posts = collection("posts", List.of(post("p1", 4)), List.of(post("p1", 5)));
+        collection("comments", List.of(), List.of());
+        edgeCounts(List.of(count("p1", 5)));
+
+        likeService.recount();
+
+        verify(posts, never()).bulkWrite(anyList(), any(BulkWriteOptions.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void edgeCounts(List<Document> groups) {
+        MongoCollection<Document> likes = mock(MongoCollection.class);
+        when(mongoTemplate.getCollection("likes")).thenReturn(likes);
+        AggregateIterable<Document> aggregation = mock(AggregateIterable.class);
+        when(likes.aggregate(anyList())).thenReturn(aggregation);
+        when(aggregation.iterator()).thenAnswer(invocation -> cursor(groups.iterator()));
+    }
+
+    private static Document post(String id, Object likeCount) {
+        return new Document("_id", id).append("likeCount", likeCount);
+    }
+
+    private static Document count(String id, int count) {
+        return new Document("_id", id).append("count", count);
+    }
+
+    // The first list is what the full scan sees, the second what the settled re-read sees
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> collection(String name, List<Document> scanned, List<Document> reread) {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> all = mock(FindIterable.class);
+        FindIterable<Document> some = mock(FindIterable.class);
+        when(mongoTemplate.getCollection(name)).thenReturn(collection);
+        when(collection.find()).thenReturn(all);
+        when(all.projection(any(Bson.class))).thenReturn(all);
+        when(all.batchSize(anyInt())).thenReturn(all);
+        when(all.iterator()).thenAnswer(invocation -> cursor(scanned.iterator()));
+        when(collection.find(any(Bson.class))).thenReturn(some);
+        when(some.projection(any(Bson.class))).thenReturn(some);
+        when(some.iterator()).thenAnswer(invocation -> cursor(reread.iterator()));
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<Document> cursor(Iterator<Document> documents) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> documents.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> documents.next());
+        return cursor;
+    }
+}
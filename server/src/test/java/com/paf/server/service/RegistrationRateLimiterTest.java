@@ -0,0 +1,26 @@
+package com.paf.server.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistrationRateLimiterTest {
+
+    @Test
+    void rejectsOnceTheBucketIsEmpty() {
+        RegistrationRateLimiter limiter = new RegistrationRateLimiter(2, 1);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void tracksClientsIndependently() {
+        RegistrationRateLimiter limiter = new RegistrationRateLimiter(1, 1);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isFalse();
+        assertThat(limiter.tryAcquire("10.0.0.2")).isTrue();
+    }
+}
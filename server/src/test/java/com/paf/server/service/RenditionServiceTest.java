@@ -0,0 +1,116 @@
+package com.paf.server.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.paf.server.model.FileRendition;
+import com.paf.server.storage.StorageBackend;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RenditionServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+    private final StorageBackend storageBackend = mock(StorageBackend.class);
+    private final RenditionService service = new RenditionService(storageBackend, mock(SignedUrlService.class),
+        mongoTemplate, executor, 40_000_000, Duration.ofMinutes(10));
+
+    @Test
+    void requeuesAJobLeftPendingByARestart() {
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(FileRendition.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(FileRendition.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(service.submit("photo.png")).isEqualTo(FileRendition.Status.PENDING);
+
+        ArgumentCaptor<Query> reclaim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(reclaim.capture(), any(UpdateDefinition.class), eq(FileRendition.class));
+        List<Document> branches = reclaim.getValue().getQueryObject().getList("$or", Document.class);
+        assertThat(branches).anySatisfy(branch -> assertThat(branch).containsKey("updatedAt"));
+        verify(executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void leavesALiveJobAlone() {
+        FileRendition running = new FileRendition();
+        running.setStatus(FileRendition.Status.PROCESSING);
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(FileRendition.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(FileRendition.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.findById("photo.png", FileRendition.class)).thenReturn(running);
+
+        assertThat(service.submit("photo.png")).isEqualTo(FileRendition.Status.PROCESSING);
+        verify(executor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    void renditionNamesFollowTheirFormat() {
+        assertThat(RenditionService.objectName("abc.png", RenditionService.Rendition.THUMBNAIL))
+            .isEqualTo("renditions/thumbnail/abc.png");
+        assertThat(RenditionService.objectName("abc.bmp", RenditionService.Rendition.MEDIUM))
+            .isEqualTo("renditions/medium/abc.jpg");
+        assertThat(RenditionService.objectName("abc", RenditionService.Rendition.MEDIUM))
+            .isEqualTo("renditions/medium/abc.jpg");
+        assertThat(RenditionService.objectName("abc.bmp", RenditionService.Rendition.ORIGINAL)).isEqualTo("abc.bmp");
+        assertThat(RenditionService.storedNames("abc.bmp"))
+            .contains("renditions/thumbnail/abc.jpg", "renditions/thumbnail/abc.bmp", "abc.bmp");
+    }
+
+    @Test
+    void reencodedRenditionsAreWrittenAsJpegUnderJpgNames() throws IOException {
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(FileRendition.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 0L, new BsonString("photo.bmp")));
+        when(storageBackend.open("photo.bmp")).thenReturn(new ByteArrayInputStream(image(400, 300, "bmp")));
+        Map<String, byte[]> written = new HashMap<>();
+        when(storageBackend.write(any(), any(), any())).thenAnswer(invocation -> {
+            written.put(invocation.getArgument(0) + " " + invocation.getArgument(2),
+                invocation.<InputStream>getArgument(1).readAllBytes());
+            return 0L;
+        });
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        service.submit("photo.bmp");
+
+        assertThat(written).containsOnlyKeys("renditions/thumbnail/photo.jpg image/jpeg");
+        byte[] thumbnail = written.get("renditions/thumbnail/photo.jpg image/jpeg");
+        // JPEG start-of-image marker
+        assertThat(thumbnail[0]).isEqualTo((byte) 0xFF);
+        assertThat(thumbnail[1]).isEqualTo((byte) 0xD8);
+    }
+
+    private static byte[] image(int width, int height, String format) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, encoded);
+        return encoded.toByteArray();
+    }
+}
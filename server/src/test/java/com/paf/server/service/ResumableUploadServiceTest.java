@@ -0,0 +1,117 @@
+package com.paf.server.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.paf.server.config.UploadProperties;
+import com.paf.server.model.UploadSession;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResumableUploadServiceTest {
+
+    @TempDir
+    Path partDirectory;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ContentStoreService contentStoreService = mock(ContentStoreService.class);
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new ResumableUploadService(mongoTemplate, contentStoreService, new UploadProperties(),
+            partDirectory.toString(), DataSize.ofMegabytes(10), DataSize.ofMegabytes(1),
+            Duration.ofHours(1), Duration.ofMinutes(2));
+    }
+
+    @Test
+    void appendsOnceTheOffsetIsClaimed() throws IOException {
+        UploadSession session = session(10, 0);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(UploadSession.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(service.appendChunk(session, 0, body("hello"))).isEqualTo(5);
+        assertThat(Files.readString(part(session))).isEqualTo("hello");
+    }
+
+    @Test
+    void leavesThePartFileAloneWhenAnotherRequestHoldsTheOffset() throws IOException {
+        UploadSession session = session(10, 5);
+        Files.writeString(part(session), "hello");
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(UploadSession.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThatThrownBy(() -> service.appendChunk(session, 5, body("world")))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(Files.readString(part(session))).isEqualTo("hello");
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(claim.capture(), any(UpdateDefinition.class), eq(UploadSession.class));
+        assertThat(claim.getValue().getQueryObject()).containsEntry("receivedBytes", 5L).containsKey("$or");
+    }
+
+    @Test
+    void completeRewindsTheSessionWhenThePartFileIsShort() throws IOException {
+        UploadSession session = session(10, 10);
+        Files.writeString(part(session), "hell");
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(UploadSession.class)))
+            .thenReturn(session);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(UploadSession.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThatThrownBy(() -> service.complete(session)).isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<UpdateDefinition> rewind = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), rewind.capture(), eq(UploadSession.class));
+        assertThat(rewind.getValue().getUpdateObject().get("$set", Document.class))
+            .containsEntry("status", UploadSession.Status.OPEN)
+            .containsEntry("receivedBytes", 4L);
+        verify(contentStoreService, never()).store(any(InputStreamSource.class), anyString(), anyString(), anyString());
+    }
+
+    private UploadSession session(long totalSize, long receivedBytes) throws IOException {
+        UploadSession session = new UploadSession();
+        session.setId("session-" + totalSize + "-" + receivedBytes);
+        session.setOwnerId("owner");
+        session.setFilename("clip.mp4");
+        session.setContentType("video/mp4");
+        session.setTotalSize(totalSize);
+        session.setReceivedBytes(receivedBytes);
+        session.setStatus(UploadSession.Status.OPEN);
+        Files.createFile(part(session));
+        return session;
+    }
+
+    private Path part(UploadSession session) {
+        return partDirectory.resolve(session.getId() + ".part");
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.paf.server.service;
+
+import com.paf.server.model.CursorPage;
+import com.paf.server.model.FollowEdge;
+import com.paf.server.model.Post;
+import com.paf.server.model.PostView;
+import com.paf.server.model.TimelineBucket;
+import com.paf.server.model.User;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimelineServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final PostService postService = mock(PostService.class);
+    private final TimelineService service = new TimelineService(mongoTemplate, postService,
+        3, 20, 10_000, 500, 2000, Duration.ofMinutes(1));
+
+    @Test
+    void splitsABucketRangeOverPagesWhenLargeAccountsPostedMore() {
+        Post p1 = post("p1", "friend", 10);
+        Post p2 = post("p2", "friend", 5);
+        Post l1 = post("l1", "celebrity", 9);
+        Post l2 = post("l2", "celebrity", 8);
+        Post l3 = post("l3", "celebrity", 7);
+        Post l4 = post("l4", "celebrity", 6);
+        Map<String, Post> bucketPosts = Stream.of(p1, p2).collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        TimelineBucket bucket = new TimelineBucket();
+        bucket.setId(new ObjectId().toHexString());
+        bucket.setOwnerId("reader");
+        bucket.setEntries(List.of(entry(p1), entry(p2)));
+
+        FollowEdge follow = new FollowEdge();
+        follow.setFolloweeId("celebrity");
+        User celebrity = new User();
+        celebrity.setId("celebrity");
+
+        when(mongoTemplate.findOne(any(Query.class), eq(TimelineBucket.class)))
+            .thenReturn(bucket, bucket, bucket, null);
+        when(mongoTemplate.find(any(Query.class), eq(FollowEdge.class))).thenReturn(List.of(follow));
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(celebrity));
+        when(mongoTemplate.find(any(Query.class), eq(Post.class)))
+            .thenReturn(List.of(l1, l2, l3, l4), List.of(l3, l4), List.of());
+        when(postService.findPosts(anyCollection())).thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0)
+            .stream().map(bucketPosts::get).toList());
+        when(postService.toViews(anyList(), eq("reader"))).thenAnswer(invocation -> invocation.<List<Post>>getArgument(0)
+            .stream().map(post -> new PostView(post, null, false)).toList());
+
+        CursorPage<PostView> first = service.getHomeTimeline("reader", null);
+        assertThat(ids(first)).containsExactly("p1", "l1", "l2");
+
+        CursorPage<PostView> second = service.getHomeTimeline("reader", first.nextCursor());
+        assertThat(ids(second)).containsExactly("l3", "l4", "p2");
+
+        CursorPage<PostView> third = service.getHomeTimeline("reader", second.nextCursor());
+        assertThat(third.items()).isEmpty();
+        assertThat(third.nextCursor()).isNull();
+    }
+
+    private static List<String> ids(CursorPage<PostView> page) {
+        return page.items().stream().map(view -> view.post().getId()).toList();
+    }
+
+    private static Post post(String id, String authorId, int minute) {
+        Post post = new Post();
+        post.setId(id);
+        post.setUserId(authorId);
+        post.setCreatedAt(NOW.plusMinutes(minute));
+        return post;
+    }
+
+    private static TimelineBucket.Entry entry(Post post) {
+        TimelineBucket.Entry entry = new TimelineBucket.Entry();
+        entry.setPostId(post.getId());
+        entry.setAuthorId(post.getUserId());
+        entry.setCreatedAt(post.getCreatedAt());
+        return entry;
+    }
+}
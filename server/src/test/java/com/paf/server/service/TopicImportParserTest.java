@@ -0,0 +1,39 @@
+package com.paf.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paf.server.model.LearningPlan;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopicImportParserTest {
+
+    private final TopicImportParser parser = new TopicImportParser(new ObjectMapper());
+
+    @Test
+    void readsTopicsFromAWrappedArray() throws IOException {
+        List<LearningPlan.PlanTopic> topics = parse("{\"name\": \"x\", \"topics\": [{\"title\": \"Basics\", \"resources\": [\"a\"]}]}");
+
+        assertThat(topics).extracting(LearningPlan.PlanTopic::getTitle).containsExactly("Basics");
+        assertThat(topics.get(0).getResources()).containsExactly("a");
+    }
+
+    @Test
+    void rejectsANonObjectElementWithItsPosition() {
+        assertThatThrownBy(() -> parse("[{\"title\": \"Basics\"},\n \"Advanced\", {\"title\": \"Never read\"}]"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Topic 2")
+            .hasMessageContaining("line 2");
+    }
+
+    private List<LearningPlan.PlanTopic> parse(String json) throws IOException {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+            TopicImportParser.Format.JSON, 100);
+    }
+}
@@ -0,0 +1,60 @@
+package com.paf.server.service;
+
+import com.paf.server.config.CacheConfig;
+import com.paf.server.config.EntityCacheProperties;
+import com.paf.server.model.UserSummary;
+import com.paf.server.repository.CommunityRepository;
+import com.paf.server.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSummaryServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private UserSummaryService summaries;
+    private EntityCacheService entityCache;
+
+    @BeforeEach
+    void setUp() {
+        EntityCacheProperties properties = new EntityCacheProperties();
+        properties.setRepositories(List.of(CacheConfig.USERS));
+        CacheManager cacheManager = new CacheConfig().cacheManager(properties, 100, 300);
+        summaries = new UserSummaryService(userRepository, cacheManager);
+        entityCache = new EntityCacheService(userRepository, mock(CommunityRepository.class), cacheManager);
+    }
+
+    @Test
+    void servesRepeatLookupsFromTheCacheInRequestOrder() {
+        when(userRepository.findByIdIn(anyCollection())).thenReturn(List.of(
+            new UserSummary("b", "Bea", null), new UserSummary("a", "Ann", null)));
+
+        assertThat(summaries.getSummaries(List.of("a", "b", "missing")))
+            .extracting(UserSummary::id).containsExactly("a", "b");
+        assertThat(summaries.getSummaries(List.of("b", "a")))
+            .extracting(UserSummary::name).containsExactly("Bea", "Ann");
+
+        verify(userRepository, times(1)).findByIdIn(List.of("a", "b", "missing"));
+    }
+
+    @Test
+    void evictingTheUserDropsTheSummary() {
+        when(userRepository.findByIdIn(anyCollection()))
+            .thenReturn(List.of(new UserSummary("a", "Ann", null)))
+            .thenReturn(List.of(new UserSummary("a", "Anna", null)));
+
+        summaries.getSummary("a");
+        entityCache.evictUser("a");
+
+        assertThat(summaries.getSummary("a")).map(UserSummary::name).contains("Anna");
+    }
+}
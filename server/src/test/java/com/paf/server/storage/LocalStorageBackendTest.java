@@ -0,0 +1,78 @@
+package com.paf.server.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageBackendTest {
+
+    @TempDir
+    Path root;
+
+    private LocalStorageBackend backend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backend = new LocalStorageBackend(root.toString(), "http://files.example/");
+    }
+
+    @Test
+    void writesObjectInPlaceWithoutLeavingTemporaryFiles() throws IOException {
+        long written = backend.write("renditions/a.jpg", stream("first"), "image/jpeg");
+        backend.write("renditions/a.jpg", stream("second version"), "image/jpeg");
+
+        assertThat(written).isEqualTo(5);
+        assertThat(backend.exists("renditions/a.jpg")).isTrue();
+        assertThat(backend.localPath("renditions/a.jpg")).contains(root.resolve("renditions/a.jpg"));
+        try (InputStream input = backend.open("renditions/a.jpg")) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("second version");
+        }
+        try (Stream<Path> files = Files.list(root.resolve("renditions"))) {
+            assertThat(files).containsExactly(root.resolve("renditions/a.jpg"));
+        }
+    }
+
+    @Test
+    void deletesObjectsAndIgnoresMissingOnes() throws IOException {
+        backend.write("a.txt", stream("a"), "text/plain");
+
+        backend.delete(List.of("a.txt", "missing.txt"));
+
+        assertThat(backend.exists("a.txt")).isFalse();
+        assertThat(backend.localPath("a.txt")).isEmpty();
+    }
+
+    @Test
+    void refusesNamesOutsideTheRoot() {
+        assertThatThrownBy(() -> backend.write("../escape.txt", stream("x"), "text/plain"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> backend.localPath("nested/../../escape.txt"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> backend.exists("."))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(Files.exists(root.getParent().resolve("escape.txt"))).isFalse();
+    }
+
+    @Test
+    void urlPointsAtContentEndpointWithEncodedName() {
+        assertThat(backend.url("my file+1.png", Duration.ofHours(1)))
+            .isEqualTo("http://files.example/api/files/content?name=my+file%2B1.png");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}